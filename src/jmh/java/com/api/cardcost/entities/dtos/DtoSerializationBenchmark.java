@@ -0,0 +1,72 @@
+package com.api.cardcost.entities.dtos;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the pricing DTOs in each wire format: a card number request, its clearing cost response
+ * and a batch of 100 results. The encoded sizes are compared in {@code CborMessageConverterTest}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DtoSerializationBenchmark {
+
+    @Param({"json", "cbor"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private CardNumberDto cardNumber;
+    private ClearingCostDto clearingCost;
+    private List<CardCostResultDto> batch;
+    private byte[] cardNumberBytes;
+    private byte[] clearingCostBytes;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = "cbor".equals(format) ? new CBORMapper() : new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        cardNumber = new CardNumberDto("4571736012345678");
+        clearingCost = new ClearingCostDto("US", 5.0);
+        batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(new CardCostResultDto((45717360 + i) + "****0000", "US", 5.0, 200, null));
+        }
+        cardNumberBytes = objectMapper.writeValueAsBytes(cardNumber);
+        clearingCostBytes = objectMapper.writeValueAsBytes(clearingCost);
+    }
+
+    @Benchmark
+    public byte[] clearingCost() throws IOException {
+        return objectMapper.writeValueAsBytes(clearingCost);
+    }
+
+    @Benchmark
+    public byte[] batchOf100() throws IOException {
+        return objectMapper.writeValueAsBytes(batch);
+    }
+
+    @Benchmark
+    public CardNumberDto readCardNumber() throws IOException {
+        return objectMapper.readValue(cardNumberBytes, CardNumberDto.class);
+    }
+
+    @Benchmark
+    public ClearingCostDto readClearingCost() throws IOException {
+        return objectMapper.readValue(clearingCostBytes, ClearingCostDto.class);
+    }
+}
@@ -0,0 +1,148 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.controllers.CardCostController;
+import com.api.cardcost.entities.ClearingCost;
+import com.api.cardcost.entities.dtos.CardCostResultDto;
+import com.api.cardcost.entities.dtos.CardNumberDto;
+import com.api.cardcost.exceptions.GlobalExceptionHandler;
+import com.api.cardcost.exceptions.NotFoundException;
+import com.api.cardcost.exceptions.TooManyRequestsException;
+import com.api.cardcost.repositories.ClearingCostRepository;
+import com.api.cardcost.services.bin.BinCountryCache;
+import com.api.cardcost.services.bin.BinCountryStore;
+import com.api.cardcost.services.bin.BinLookupProvider;
+import com.api.cardcost.services.bin.BinLookupResult;
+import com.api.cardcost.services.bin.BinProviderChain;
+import com.api.cardcost.services.bin.BinRangeIndex;
+import com.api.cardcost.services.bin.BinResolver;
+import com.api.cardcost.services.bin.CircuitBreaker;
+import com.api.cardcost.services.bin.GuardedBinLookupProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card pricing at a 100% BIN lookup error rate: every lookup is throttled, soon by the open circuit, or unknown
+ * to the provider. Compares the typed result, the controller built on it, the stackless exceptions of
+ * {@link CardCostService#getCardCost} and, as a baseline, the former path that threw an exception with a stack
+ * trace and built a fresh error map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CardCostErrorPathBenchmark {
+
+    private static final String CARD = "4571736000000000";
+
+    @Param({"THROTTLED", "NOT_FOUND"})
+    public BinLookupResult.Status error;
+
+    private CardCostService cardCostService;
+    private CardCostController cardCostController;
+    private GlobalExceptionHandler exceptionHandler;
+    private CardNumberDto cardNumber;
+
+    @Setup
+    public void setup() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BinRangeIndex binRangeIndex = new BinRangeIndex(new ByteArrayResource(new byte[0]));
+        binRangeIndex.init();
+        // A zero negative TTL keeps not-found answers out of the cache, so every call reaches the provider.
+        BinCountryCache binCountryCache = new BinCountryCache(1024, Duration.ofHours(24), Duration.ZERO,
+                Duration.ofDays(7));
+        BinResolver binResolver = new BinResolver(binRangeIndex, binCountryCache,
+                new BinCountryStore(binCountryCache, "", Duration.ofHours(24), Duration.ofDays(7), 2.0),
+                new BinProviderChain(List.of(new GuardedBinLookupProvider(new FailingProvider(error),
+                        new CircuitBreaker(5, Duration.ofSeconds(30)), null, meterRegistry)),
+                        false, Duration.ofMillis(200)), null);
+
+        ClearingCostRepository repository = CardCostServiceBenchmark.clearingCostRepository(
+                List.of(new ClearingCost("US", 5.0)));
+        ClearingCostTable clearingCostTable = new ClearingCostTable(repository);
+        clearingCostTable.reload();
+        ClearingCostRevisions revisions = new ClearingCostRevisions(repository);
+        cardCostService = new CardCostService(binResolver, repository, clearingCostTable,
+                revisions,
+                new ClearingCostChangeLog(revisions, repository, 16),
+                new ClearingCostHistory(null, repository, null), null, new ClearingCostRules(null, null),
+                new CardCostMetrics(meterRegistry), 10.0);
+        cardCostController = new CardCostController(cardCostService, null, null, Duration.ZERO);
+        exceptionHandler = new GlobalExceptionHandler();
+        cardNumber = new CardNumberDto(CARD);
+    }
+
+    @Benchmark
+    public CardCostResultDto typedResult() {
+        return cardCostService.resolveCardCost(CARD, null);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> controller() {
+        return cardCostController.getCardCost(cardNumber);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> stacklessException() {
+        try {
+            return ResponseEntity.ok(cardCostService.getCardCost(CARD));
+        } catch (TooManyRequestsException e) {
+            return exceptionHandler.handleTooManyRequestsException(e);
+        } catch (NotFoundException e) {
+            return exceptionHandler.handleNotFoundException(e);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> exceptionWithStackTrace() {
+        CardCostResultDto result = cardCostService.resolveCardCost(CARD, null);
+        try {
+            throw new Exception(result.getError());
+        } catch (Exception e) {
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.valueOf(result.getStatus())).body(errorResponse);
+        }
+    }
+
+    private static class FailingProvider implements BinLookupProvider {
+
+        private final BinLookupResult result;
+
+        FailingProvider(BinLookupResult.Status error) {
+            this.result = error == BinLookupResult.Status.THROTTLED
+                    ? BinLookupResult.TOO_MANY_REQUESTS
+                    : BinLookupResult.COUNTRY_NOT_FOUND;
+        }
+
+        @Override
+        public String name() {
+            return "failing";
+        }
+
+        @Override
+        public BinLookupResult lookup(int bin) {
+            return result;
+        }
+
+        @Override
+        public CompletableFuture<BinLookupResult> lookupAsync(int bin) {
+            return CompletableFuture.completedFuture(result);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.ClearingCost;
+import com.api.cardcost.entities.ClearingCostRule;
+import com.api.cardcost.entities.dtos.ClearingCostDto;
+import com.api.cardcost.repositories.ClearingCostRepository;
+import com.api.cardcost.services.bin.BinCountryCache;
+import com.api.cardcost.services.bin.BinCountryStore;
+import com.api.cardcost.services.bin.BinLookupProvider;
+import com.api.cardcost.services.bin.BinLookupResult;
+import com.api.cardcost.services.bin.BinProviderChain;
+import com.api.cardcost.services.bin.BinRangeIndex;
+import com.api.cardcost.services.bin.BinResolver;
+import com.api.cardcost.services.bin.CardAttributes;
+import com.api.cardcost.services.bin.CardNumbers;
+import com.api.cardcost.services.bin.CircuitBreaker;
+import com.api.cardcost.services.bin.GuardedBinLookupProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CardCostService#getCardCost} without the network: binlist is replaced by a provider that
+ * answers immediately, so the numbers cover validation, BIN resolution, caching and pricing only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CardCostServiceBenchmark {
+
+    private static final String CACHED_CARD = "4571736000000000";
+    private static final int REMOTE_BINS = 1 << 16;
+    private static final int RULE_ATTRIBUTES = CardAttributes.of(CardAttributes.Scheme.VISA,
+            CardAttributes.Type.DEBIT, true);
+
+    private CardCostService cardCostService;
+    private ClearingCostRules clearingCostRules;
+    private String[] remoteCards;
+    private int nextRemoteCard;
+
+    @Setup
+    public void setup() {
+        BinRangeIndex binRangeIndex = new BinRangeIndex(new ByteArrayResource(new byte[0]));
+        binRangeIndex.init();
+        BinCountryCache binCountryCache = new BinCountryCache(1024, Duration.ofHours(24), Duration.ofMinutes(10),
+                Duration.ofDays(7));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BinProviderChain providerChain = new BinProviderChain(List.of(new GuardedBinLookupProvider(
+                new StubBinlistProvider(), new CircuitBreaker(5, Duration.ofSeconds(30)), null, meterRegistry)),
+                false, Duration.ofMillis(200));
+        BinResolver binResolver = new BinResolver(binRangeIndex, binCountryCache,
+                new BinCountryStore(binCountryCache, "", Duration.ofHours(24), Duration.ofDays(7), 2.0), providerChain, null);
+
+        ClearingCostRepository repository = clearingCostRepository(List.of(new ClearingCost("US", 5.0)));
+        ClearingCostTable clearingCostTable = new ClearingCostTable(repository);
+        clearingCostTable.reload();
+
+        clearingCostRules = new ClearingCostRules(null, null);
+        clearingCostRules.load(List.of(
+                new ClearingCostRule(1L, null, "AMEX", null, null, 20.0, 0),
+                new ClearingCostRule(2L, "GR", null, "CREDIT", null, 18.0, 0),
+                new ClearingCostRule(3L, "GR", "VISA", "DEBIT", true, 12.0, 1)));
+
+        ClearingCostRevisions revisions = new ClearingCostRevisions(repository);
+        cardCostService = new CardCostService(binResolver, repository, clearingCostTable,
+                revisions,
+                new ClearingCostChangeLog(revisions, repository, 16),
+                new ClearingCostHistory(null, repository, null), null, clearingCostRules, new CardCostMetrics(meterRegistry),
+                10.0);
+
+        remoteCards = new String[REMOTE_BINS];
+        for (int i = 0; i < REMOTE_BINS; i++) {
+            remoteCards[i] = withCheckDigit((40_000_000 + i) + "0000000");
+        }
+    }
+
+    @Benchmark
+    public ClearingCostDto getCardCostCachedBin() {
+        return cardCostService.getCardCost(CACHED_CARD);
+    }
+
+    @Benchmark
+    public ClearingCostDto getCardCostRemoteBin() {
+        nextRemoteCard = (nextRemoteCard + 1) & (REMOTE_BINS - 1);
+        return cardCostService.getCardCost(remoteCards[nextRemoteCard]);
+    }
+
+    @Benchmark
+    public double clearingCostRuleLookup() {
+        return clearingCostRules.cost("GR", RULE_ATTRIBUTES);
+    }
+
+    @Benchmark
+    public int parseBin() {
+        return CardNumbers.parseBin(CACHED_CARD);
+    }
+
+    private static String withCheckDigit(String payload) {
+        for (int digit = 0; digit <= 9; digit++) {
+            String cardNumber = payload + digit;
+            if (CardNumbers.parseBin(cardNumber) >= 0) {
+                return cardNumber;
+            }
+        }
+        throw new IllegalStateException(payload);
+    }
+
+    static ClearingCostRepository clearingCostRepository(List<ClearingCost> clearingCosts) {
+        return (ClearingCostRepository) Proxy.newProxyInstance(ClearingCostRepository.class.getClassLoader(),
+                new Class<?>[]{ClearingCostRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && method.getParameterCount() == 0) {
+                        return clearingCosts;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static class StubBinlistProvider implements BinLookupProvider {
+
+        @Override
+        public String name() {
+            return "stub";
+        }
+
+        @Override
+        public BinLookupResult lookup(int bin) {
+            return BinLookupResult.found("US", CardAttributes.UNKNOWN);
+        }
+
+        @Override
+        public CompletableFuture<BinLookupResult> lookupAsync(int bin) {
+            return CompletableFuture.completedFuture(lookup(bin));
+        }
+    }
+}
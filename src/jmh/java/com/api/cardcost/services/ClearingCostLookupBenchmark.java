@@ -0,0 +1,92 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.ClearingCost;
+import com.api.cardcost.repositories.ClearingCostBulkRepositoryImpl;
+import com.api.cardcost.repositories.ClearingCostRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clearing cost lookup for one country: a Spring Data JPA query against an in-memory H2 database
+ * behind a Hikari pool versus the in-memory {@link ClearingCostTable}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClearingCostLookupBenchmark {
+
+    private static final String COUNTRY_CODE = "US";
+
+    private HikariDataSource dataSource;
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private ClearingCostRepository clearingCostRepository;
+    private ClearingCostTable clearingCostTable;
+
+    @Setup
+    public void setup() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        this.dataSource = dataSource;
+
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan(ClearingCost.class.getPackageName());
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+
+        entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        entityManager.persist(new ClearingCost(COUNTRY_CODE, 5.0));
+        entityManager.persist(new ClearingCost("GR", 15.0));
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+
+        clearingCostRepository = new JpaRepositoryFactory(entityManager).getRepository(ClearingCostRepository.class,
+                RepositoryFragments.just(new ClearingCostBulkRepositoryImpl(new JdbcTemplate(dataSource))));
+        clearingCostTable = new ClearingCostTable(CardCostServiceBenchmark.clearingCostRepository(
+                List.of(new ClearingCost(COUNTRY_CODE, 5.0), new ClearingCost("GR", 15.0))));
+        clearingCostTable.reload();
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+        dataSource.close();
+    }
+
+    @Benchmark
+    public Optional<ClearingCost> jpaFindByCountryCode() {
+        Optional<ClearingCost> clearingCost = clearingCostRepository.findByCountryCode(COUNTRY_CODE);
+        entityManager.clear();
+        return clearingCost;
+    }
+
+    @Benchmark
+    public double inMemoryTable() {
+        return clearingCostTable.cost(COUNTRY_CODE, 10.0);
+    }
+}
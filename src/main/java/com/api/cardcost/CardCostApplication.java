@@ -2,8 +2,10 @@ package com.api.cardcost;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class CardCostApplication {
 
 	public static void main(String[] args) {
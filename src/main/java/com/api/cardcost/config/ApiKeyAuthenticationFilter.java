@@ -0,0 +1,87 @@
+package com.api.cardcost.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Authenticates a request from its API key header. The configured digests become one prebuilt, immutable
+ * {@link Authentication} per client with the {@link #ROLE} role, so a request costs a header read, one
+ * SHA-256 of the key and a map probe. Raw keys are never kept in memory, and nothing is stored in a session.
+ */
+public class ApiKeyAuthenticationFilter extends OncePerRequestFilter {
+
+    public static final String ROLE = "API";
+
+    private final String header;
+    private final Map<String, Authentication> clientsByDigest = new HashMap<>();
+    private final SecurityContextHolderStrategy contextHolder = SecurityContextHolder.getContextHolderStrategy();
+
+    public ApiKeyAuthenticationFilter(ApiKeyProperties properties) {
+        this.header = properties.header();
+        for (ApiKeyProperties.Client client : properties.clients()) {
+            if (client.name() == null || client.keySha256() == null) {
+                throw new IllegalArgumentException("API key clients need a name and a key-sha256.");
+            }
+            Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(client.name(), null,
+                    AuthorityUtils.createAuthorityList("ROLE_" + ROLE));
+            clientsByDigest.put(client.keySha256().toLowerCase(Locale.ROOT), authentication);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(header);
+        if (key != null) {
+            Authentication authentication = authenticate(key);
+            if (authentication != null) {
+                contextHolder.setContext(new SecurityContextImpl(authentication));
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    Authentication authenticate(String key) {
+        return clientsByDigest.get(sha256(key));
+    }
+
+    /**
+     * Async and error dispatches of a request are authenticated again.
+     */
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
+    }
+
+    static String sha256(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
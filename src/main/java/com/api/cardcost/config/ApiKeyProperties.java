@@ -0,0 +1,18 @@
+package com.api.cardcost.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * API keys accepted on {@code /card-cost/**} by the stateless security chain. Only the SHA-256 digest of
+ * each key is configured, as hex.
+ */
+@ConfigurationProperties(prefix = "cardcost.security.api-keys")
+public record ApiKeyProperties(@DefaultValue("false") boolean enabled, @DefaultValue("X-API-Key") String header,
+                               @DefaultValue List<Client> clients) {
+
+    public record Client(String name, String keySha256) {
+    }
+}
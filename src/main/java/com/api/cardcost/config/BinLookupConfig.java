@@ -0,0 +1,48 @@
+package com.api.cardcost.config;
+
+import com.api.cardcost.services.BinlistClient;
+import com.api.cardcost.services.bin.BinProviderChain;
+import com.api.cardcost.services.bin.CircuitBreaker;
+import com.api.cardcost.services.bin.GuardedBinLookupProvider;
+import com.api.cardcost.services.bin.HttpBinLookupProvider;
+import com.api.cardcost.services.bin.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(BinProvidersProperties.class)
+public class BinLookupConfig {
+
+    @Bean
+    public TokenBucketRateLimiter binlistRateLimiter(@Value("${cardcost.binlist.rate-limit.limit:5}") int limit,
+                                                     @Value("${cardcost.binlist.rate-limit.period:1h}") Duration period,
+                                                     @Value("${cardcost.binlist.rate-limit.burst:5}") int burst) {
+        return new TokenBucketRateLimiter(limit, period, burst);
+    }
+
+    @Bean
+    public BinProviderChain binProviderChain(
+            BinlistClient binlistClient, TokenBucketRateLimiter binlistRateLimiter, HttpClient httpClient,
+            BinProvidersProperties properties, MeterRegistry meterRegistry,
+            @Value("${cardcost.binlist.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${cardcost.binlist.circuit-breaker.open-duration:30s}") Duration openDuration) {
+        List<GuardedBinLookupProvider> providers = new ArrayList<>();
+        providers.add(new GuardedBinLookupProvider(binlistClient,
+                new CircuitBreaker(failureThreshold, openDuration), binlistRateLimiter, meterRegistry));
+        for (BinProvidersProperties.Secondary secondary : properties.secondaries()) {
+            HttpBinLookupProvider provider = new HttpBinLookupProvider(secondary.name(), secondary.url(),
+                    secondary.timeout(), httpClient);
+            providers.add(new GuardedBinLookupProvider(provider,
+                    new CircuitBreaker(failureThreshold, openDuration), null, meterRegistry));
+        }
+        return new BinProviderChain(providers, properties.hedge().enabled(), properties.hedge().initialDelay());
+    }
+}
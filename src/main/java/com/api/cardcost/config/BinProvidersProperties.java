@@ -0,0 +1,28 @@
+package com.api.cardcost.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.validator.constraints.URL;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Secondary binlist-compatible providers queried after binlist, and hedging between them. Each secondary
+ * needs a name and an http(s) base URL, so a mistyped entry fails startup instead of every lookup.
+ */
+@Validated
+@ConfigurationProperties(prefix = "cardcost.bin-providers")
+public record BinProvidersProperties(@DefaultValue Hedge hedge, @DefaultValue List<@Valid Secondary> secondaries) {
+
+    public record Hedge(@DefaultValue("false") boolean enabled, @DefaultValue("200ms") Duration initialDelay) {
+    }
+
+    public record Secondary(@NotBlank String name, @NotBlank @URL(regexp = "^https?:.*") String url,
+                            @NotNull @DefaultValue("2s") Duration timeout) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.api.cardcost.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * Runs the HTTP client's response handling on virtual threads. The client does not shut down an executor
+     * it was given, so the context closes it, after the client that depends on it.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public ExecutorService httpClientExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean
+    public HttpClient httpClient(@Value("${cardcost.binlist.connect-timeout:2s}") Duration connectTimeout,
+                                 @Qualifier("httpClientExecutor") Optional<ExecutorService> httpClientExecutor) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        httpClientExecutor.ifPresent(builder::executor);
+        return builder.build();
+    }
+}
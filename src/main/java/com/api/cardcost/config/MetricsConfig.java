@@ -0,0 +1,21 @@
+package com.api.cardcost.config;
+
+import com.api.cardcost.controllers.PricingResponseTimer;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final PricingResponseTimer pricingResponseTimer;
+
+    public MetricsConfig(PricingResponseTimer pricingResponseTimer) {
+        this.pricingResponseTimer = pricingResponseTimer;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(pricingResponseTimer).addPathPatterns("/card-cost/payment-cards-cost/**");
+    }
+}
@@ -0,0 +1,96 @@
+package com.api.cardcost.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Splits JDBC traffic between the primary ({@code spring.datasource.*}) and a read replica
+ * ({@code cardcost.datasource.replica.*}), each with its own Hikari pool. Read-only transactions go to the
+ * replica through {@link ReplicaRoutingDataSource}; everything else goes to the primary. Without a replica URL
+ * the auto-configured single datasource is used.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cardcost.datasource.replica.url")
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("cardcost.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties, @Value("${cardcost.datasource.replica.url}") String url,
+            @Value("${cardcost.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${cardcost.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+            @Value("${cardcost.datasource.replica.read-your-writes:2s}") Duration readYourWrites) {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(readYourWrites);
+        dataSource.setTargetDataSources(Map.of(ReplicaRoutingDataSource.PRIMARY, primaryDataSource,
+                ReplicaRoutingDataSource.REPLICA, replicaDataSource));
+        dataSource.setDefaultTargetDataSource(primaryDataSource);
+        return dataSource;
+    }
+
+    /**
+     * Connections are fetched lazily, once the transaction has declared whether it is read-only.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    @Bean
+    public JpaTransactionManager transactionManager(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager() {
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+                super.doCommit(status);
+                if (!status.isReadOnly()) {
+                    replicaRoutingDataSource.markWritten();
+                }
+            }
+        };
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+        return transactionManager;
+    }
+}
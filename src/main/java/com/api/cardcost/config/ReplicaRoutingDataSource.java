@@ -0,0 +1,49 @@
+package com.api.cardcost.config;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.time.Duration;
+
+/**
+ * Target of read-only transactions: the replica pool, except right after a write committed on this instance,
+ * when reads stay on the primary for {@code readYourWrites} so a caller sees what it just wrote even if the
+ * replica lags. Reads also stay on the primary until the application is ready, so the in-memory clearing cost
+ * tables are loaded from the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource
+        implements ApplicationListener<ApplicationReadyEvent> {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final long readYourWritesNanos;
+
+    private volatile boolean replicaReads;
+    private volatile long primaryUntil = System.nanoTime();
+
+    public ReplicaRoutingDataSource(Duration readYourWrites) {
+        this.readYourWritesNanos = readYourWrites.toNanos();
+    }
+
+    /**
+     * Keeps reads on the primary for the read-your-writes window. Writes made while the application starts
+     * are ignored: nothing reads the replica before it is ready.
+     */
+    public void markWritten() {
+        if (replicaReads) {
+            primaryUntil = System.nanoTime() + readYourWritesNanos;
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        replicaReads = true;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replicaReads && System.nanoTime() - primaryUntil >= 0 ? REPLICA : PRIMARY;
+    }
+}
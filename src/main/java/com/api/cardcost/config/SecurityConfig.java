@@ -1,21 +1,62 @@
 package com.api.cardcost.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
 @Configuration
+@EnableConfigurationProperties(ApiKeyProperties.class)
 public class SecurityConfig {
 
+    /**
+     * With API keys enabled, pricing and reads under {@code /card-cost/**} are served by a stateless chain: the
+     * key header is the only credential, no session is created or read, and there is no login page, basic auth
+     * or request cache. Clearing cost, import and rule writes stay on the default chain, so API keys cannot
+     * make them and administrators keep using basic or form login.
+     */
+    @Bean
+    @Order(1)
+    @ConditionalOnProperty(name = "cardcost.security.api-keys.enabled", havingValue = "true")
+    public SecurityFilterChain apiKeyFilterChain(HttpSecurity http, ApiKeyProperties properties) throws Exception {
+        http
+            .securityMatchers(matchers -> matchers
+                    .requestMatchers(HttpMethod.GET, "/card-cost/**")
+                    .requestMatchers(HttpMethod.POST, "/card-cost/payment-cards-cost/**"))
+            .authorizeHttpRequests(auth -> auth.anyRequest().hasRole(ApiKeyAuthenticationFilter.ROLE))
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .securityContext(context -> context
+                    .securityContextRepository(new RequestAttributeSecurityContextRepository()))
+            .addFilterBefore(new ApiKeyAuthenticationFilter(properties), AuthorizationFilter.class)
+            .exceptionHandling(exceptions -> exceptions
+                    .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+            .csrf(AbstractHttpConfigurer::disable)
+            .requestCache(AbstractHttpConfigurer::disable)
+            .anonymous(AbstractHttpConfigurer::disable)
+            .logout(AbstractHttpConfigurer::disable)
+            .formLogin(AbstractHttpConfigurer::disable)
+            .httpBasic(AbstractHttpConfigurer::disable);
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(auth -> auth
                     .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/h2-console/**").permitAll()
+                    .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
                     .anyRequest().authenticated()
             )
             .csrf(AbstractHttpConfigurer::disable)
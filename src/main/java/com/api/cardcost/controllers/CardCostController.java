@@ -1,13 +1,30 @@
 package com.api.cardcost.controllers;
 
+import com.api.cardcost.entities.dtos.BinLookupStatsDto;
+import com.api.cardcost.entities.dtos.CardCostResultDto;
 import com.api.cardcost.entities.dtos.CardNumberDto;
+import com.api.cardcost.entities.dtos.CardNumbersDto;
+import com.api.cardcost.entities.dtos.ClearingCostChangesDto;
 import com.api.cardcost.entities.dtos.ClearingCostDto;
+import com.api.cardcost.entities.dtos.ClearingCostImportDto;
+import com.api.cardcost.entities.dtos.ClearingCostRuleDto;
 import com.api.cardcost.entities.dtos.CountryCodeDto;
+import com.api.cardcost.exceptions.ErrorBodies;
 import com.api.cardcost.services.CardCostService;
+import com.api.cardcost.services.CardCostStreamer;
+import com.api.cardcost.services.ClearingCostChangeFeed;
+import com.api.cardcost.services.ClearingCostRevisions;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.Operation;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,19 +32,56 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
 @RequestMapping("/card-cost")
 public class CardCostController {
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final String CHANGE_SEQUENCE_HEADER = "X-Change-Sequence";
+    private static final String TEXT_CSV = "text/csv";
+
     private final CardCostService cardCostService;
+    private final CardCostStreamer cardCostStreamer;
+    private final ClearingCostChangeFeed clearingCostChangeFeed;
+    private final CacheControl clearingCostCacheControl;
+
+    @Autowired
+    public CardCostController(CardCostService cardCostService, CardCostStreamer cardCostStreamer,
+                              ClearingCostChangeFeed clearingCostChangeFeed,
+                              @Value("${cardcost.clearing-costs.cache-max-age:0s}") Duration clearingCostMaxAge) {
+        this(cardCostService, cardCostStreamer, clearingCostChangeFeed, clearingCostMaxAge.isZero()
+                ? CacheControl.noCache()
+                : CacheControl.maxAge(clearingCostMaxAge).mustRevalidate());
+    }
 
-    public CardCostController(CardCostService cardCostService) {
+    private CardCostController(CardCostService cardCostService, CardCostStreamer cardCostStreamer,
+                               ClearingCostChangeFeed clearingCostChangeFeed, CacheControl clearingCostCacheControl) {
         this.cardCostService = cardCostService;
+        this.cardCostStreamer = cardCostStreamer;
+        this.clearingCostChangeFeed = clearingCostChangeFeed;
+        this.clearingCostCacheControl = clearingCostCacheControl;
+    }
+
+    /**
+     * This controller with its requests served by {@code cardCostService} instead, for calls that must not
+     * touch the live service's collaborators.
+     */
+    public CardCostController withService(CardCostService cardCostService) {
+        return new CardCostController(cardCostService, cardCostStreamer, clearingCostChangeFeed,
+                clearingCostCacheControl);
     }
 
     @PostMapping
@@ -65,28 +119,120 @@ public class CardCostController {
         return new ResponseEntity<>(updatedDto, HttpStatus.OK);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Import clearing costs in one transaction.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Clearing costs imported, with a summary of the changes."),
+            @ApiResponse(responseCode = "400", description = "Validation error, nothing was imported.")
+    })
+    public ResponseEntity<ClearingCostImportDto> importClearingCosts(@RequestBody List<ClearingCostDto> clearingCosts,
+                                                                     @RequestParam(defaultValue = "false") boolean replace) {
+        return ResponseEntity.ok(cardCostService.importClearingCosts(clearingCosts, replace));
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV)
+    @Operation(summary = "Import clearing costs from countryCode,cost CSV lines in one transaction.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Clearing costs imported, with a summary of the changes."),
+            @ApiResponse(responseCode = "400", description = "Validation error, nothing was imported.")
+    })
+    public ResponseEntity<ClearingCostImportDto> importClearingCostsCsv(@RequestBody String csv,
+                                                                        @RequestParam(defaultValue = "false") boolean replace) {
+        return ResponseEntity.ok(cardCostService.importClearingCostsCsv(csv, replace));
+    }
+
+    @GetMapping("/rules")
+    @Operation(summary = "Get clearing cost rules.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Clearing cost rules retrieved successfully.")
+    })
+    public ResponseEntity<List<ClearingCostRuleDto>> getClearingCostRules() {
+        return ResponseEntity.ok(cardCostService.getClearingCostRules());
+    }
+
+    @PostMapping("/rules")
+    @Operation(summary = "Create a clearing cost rule matching country, card scheme, card type and prepaid flag.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Clearing cost rule created successfully."),
+            @ApiResponse(responseCode = "400", description = "Validation error.")
+    })
+    public ResponseEntity<ClearingCostRuleDto> createClearingCostRule(@RequestBody ClearingCostRuleDto clearingCostRuleDto) {
+        return new ResponseEntity<>(cardCostService.createClearingCostRule(clearingCostRuleDto), HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/rules/{id}")
+    @Operation(summary = "Delete clearing cost rule.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Clearing cost rule deleted successfully."),
+            @ApiResponse(responseCode = "404", description = "Clearing cost rule not found.")
+    })
+    public ResponseEntity<?> deleteClearingCostRule(@PathVariable Long id) {
+        cardCostService.deleteClearingCostRule(id);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
     @GetMapping("/{countryCode}")
     @Operation(summary = "Get clearing cost.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Clearing cost retrieved successfully."),
+            @ApiResponse(responseCode = "304", description = "Clearing costs unchanged since the If-None-Match ETag."),
             @ApiResponse(responseCode = "400", description = "Validation error."),
             @ApiResponse(responseCode = "404", description = "Clearing cost not found.")
     })
-    public ResponseEntity<ClearingCostDto> getClearingCost(@PathVariable String countryCode) {
-        ClearingCostDto clearingCost = cardCostService.getClearingCost(countryCode);
-        return new ResponseEntity<>(clearingCost, HttpStatus.OK);
+    public ResponseEntity<ClearingCostDto> getClearingCost(@PathVariable String countryCode, WebRequest request) {
+        String current = cardCostService.getClearingCostRevision().eTag();
+        if (matchesIfNoneMatch(request, current)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).cacheControl(clearingCostCacheControl)
+                    .build();
+        }
+        ClearingCostRevisions.Revisioned<ClearingCostDto> clearingCost =
+                cardCostService.getClearingCostAtRevision(countryCode);
+        return ResponseEntity.ok().eTag(clearingCost.revision().eTag()).cacheControl(clearingCostCacheControl)
+                .body(clearingCost.value());
     }
 
     @GetMapping
     @Operation(summary = "Get all clearing cost.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Clearing costs retrieved successfully."),
+            @ApiResponse(responseCode = "304", description = "Clearing costs unchanged since the If-None-Match ETag."),
             @ApiResponse(responseCode = "400", description = "Validation error."),
             @ApiResponse(responseCode = "404", description = "No clearing costs found.")
     })
-    public ResponseEntity<List<ClearingCostDto>> getAllClearingCost() {
-        List<ClearingCostDto> clearingCosts = cardCostService.getAllClearingCost();
-        return new ResponseEntity<>(clearingCosts, HttpStatus.OK);
+    public ResponseEntity<List<ClearingCostDto>> getAllClearingCost(WebRequest request) {
+        String current = cardCostService.getClearingCostRevision().eTag();
+        if (matchesIfNoneMatch(request, current)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(current).cacheControl(clearingCostCacheControl)
+                    .build();
+        }
+        ClearingCostRevisions.Revisioned<List<ClearingCostDto>> clearingCosts =
+                cardCostService.getAllClearingCostAtRevision();
+        return ResponseEntity.ok().eTag(clearingCosts.revision().eTag()).cacheControl(clearingCostCacheControl)
+                .header(CHANGE_SEQUENCE_HEADER, String.valueOf(clearingCosts.revision().number()))
+                .body(clearingCosts.value());
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Get clearing cost changes after a sequence.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes retrieved, pass the returned sequence as the next since."),
+            @ApiResponse(responseCode = "400", description = "Validation error."),
+            @ApiResponse(responseCode = "410", description = "Sequence expired, reload all clearing costs.")
+    })
+    public ResponseEntity<ClearingCostChangesDto> getClearingCostChanges(@RequestParam long since,
+                                                                         @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(cardCostService.getClearingCostChanges(since, limit));
+    }
+
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream clearing cost changes as Server-Sent Events.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "One event per change, the event id is its sequence."),
+            @ApiResponse(responseCode = "410", description = "Sequence expired, reload all clearing costs.")
+    })
+    public SseEmitter streamClearingCostChanges(@RequestParam(required = false) Long since,
+                                                @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return clearingCostChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
     }
 
     @PostMapping("/payment-cards-cost")
@@ -98,9 +244,65 @@ public class CardCostController {
             @ApiResponse(responseCode = "429", description = "Too many requests."),
             @ApiResponse(responseCode = "500", description = "Internal server error.")
     })
-    public ResponseEntity<ClearingCostDto> getCardCost(@RequestBody CardNumberDto cardNumberDto) throws Exception {
-        ClearingCostDto cardCost = cardCostService.getCardCost(cardNumberDto.getCardNumber());
-        return ResponseEntity.ok(cardCost);
+    public ResponseEntity<?> getCardCost(@RequestBody CardNumberDto cardNumberDto) {
+        CardCostResultDto cardCost = cardCostService.resolveCardCost(cardNumberDto.getCardNumber(),
+                cardNumberDto.getAsOf());
+        if (cardCost.getStatus() != HttpStatus.OK.value()) {
+            return ResponseEntity.status(cardCost.getStatus()).body(ErrorBodies.of(cardCost.getError()));
+        }
+        return ResponseEntity.ok(new ClearingCostDto(cardCost.getCountryCode(), cardCost.getCost(), cardCost.getStale()));
     }
 
+    @PostMapping("/payment-cards-cost/batch")
+    @Operation(summary = "Get the cost of several cards.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Card costs resolved, each item carries its own status."),
+            @ApiResponse(responseCode = "400", description = "Validation error.")
+    })
+    public ResponseEntity<List<CardCostResultDto>> getCardCosts(@RequestBody CardNumbersDto cardNumbersDto) {
+        List<CardCostResultDto> cardCosts = cardCostService.getCardCosts(cardNumbersDto.getCardNumbers(),
+                cardNumbersDto.getAsOf());
+        return ResponseEntity.ok(cardCosts);
+    }
+
+    @PostMapping(value = "/payment-cards-cost/stream",
+            consumes = {APPLICATION_NDJSON, MediaType.TEXT_PLAIN_VALUE}, produces = APPLICATION_NDJSON)
+    @Operation(summary = "Stream the cost of newline-delimited card numbers.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "One NDJSON result per input line, each with its own status.")
+    })
+    public ResponseEntity<StreamingResponseBody> streamCardCosts(HttpServletRequest request) throws IOException {
+        InputStream cardNumbers = request.getInputStream();
+        StreamingResponseBody body = output -> cardCostStreamer.stream(cardNumbers, output);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON)).body(body);
+    }
+
+    @GetMapping("/bin-lookup/stats")
+    @Operation(summary = "Get BIN lookup cache statistics.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully.")
+    })
+    public ResponseEntity<BinLookupStatsDto> getBinLookupStats() {
+        return ResponseEntity.ok(cardCostService.getBinLookupStats());
+    }
+
+    /**
+     * Unlike {@link WebRequest#checkNotModified(String)} this leaves the response headers alone, so a body read
+     * from a lagging snapshot is tagged with its own revision rather than the primary's.
+     */
+    private static boolean matchesIfNoneMatch(WebRequest request, String eTag) {
+        String[] ifNoneMatch = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        ETag current = new ETag(eTag, false);
+        for (String value : ifNoneMatch) {
+            for (ETag candidate : ETag.parse(value)) {
+                if (candidate.isWildcard() || candidate.compare(current, false)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 }
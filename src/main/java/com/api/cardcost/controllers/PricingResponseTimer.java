@@ -0,0 +1,59 @@
+package com.api.cardcost.controllers;
+
+import com.api.cardcost.services.CardCostMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Arrays;
+
+/**
+ * Times the {@code response} stage of the pricing endpoints: from the moment their body is handed to the
+ * message converter until the request completes. Other endpoints are not advised, so their serialization
+ * does not show up in the pricing metrics.
+ */
+@ControllerAdvice(assignableTypes = CardCostController.class)
+public class PricingResponseTimer implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+
+    static final String PRICING_PATH = "/payment-cards-cost";
+    private static final String START_ATTRIBUTE = PricingResponseTimer.class.getName() + ".start";
+
+    private final CardCostMetrics metrics;
+
+    public PricingResponseTimer(CardCostMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        PostMapping mapping = returnType.getMethodAnnotation(PostMapping.class);
+        return mapping != null && Arrays.stream(mapping.value()).anyMatch(path -> path.startsWith(PRICING_PATH));
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest) {
+            servletRequest.getServletRequest().setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return body;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(START_ATTRIBUTE) instanceof Long start) {
+            metrics.recordStage(CardCostMetrics.Stage.RESPONSE, System.nanoTime() - start);
+        }
+    }
+}
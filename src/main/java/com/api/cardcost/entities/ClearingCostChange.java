@@ -0,0 +1,29 @@
+package com.api.cardcost.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A committed clearing cost change. The sequence is the clearing cost revision the change produced, so it is
+ * shared by all instances writing to the same database. A null cost marks a deletion.
+ */
+@Entity
+@Data
+@Table(name = "clearing_cost_changes")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClearingCostChange {
+
+    @Id
+    private Long sequence;
+    @Column(nullable = false)
+    private String operation;
+    @Column(nullable = false)
+    private String countryCode;
+    private Double cost;
+}
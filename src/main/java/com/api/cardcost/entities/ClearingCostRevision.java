@@ -0,0 +1,30 @@
+package com.api.cardcost.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The single row counting clearing cost writes. {@code epoch} is the creation time of the row, so revisions
+ * of a recreated database never match revisions handed out before.
+ */
+@Entity
+@Data
+@Table(name = "clearing_cost_revisions")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClearingCostRevision {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id;
+    @Column(nullable = false)
+    private Long revision;
+    @Column(nullable = false)
+    private Long epoch;
+}
@@ -0,0 +1,35 @@
+package com.api.cardcost.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clearing cost for the cards matching every non-null attribute. When several rules match, the highest
+ * priority wins, then the one constraining more attributes.
+ */
+@Entity
+@Data
+@Table(name = "clearing_cost_rules")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClearingCostRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private String countryCode;
+    private String scheme;
+    private String cardType;
+    private Boolean prepaid;
+    @Column(nullable = false)
+    private Double cost;
+    @Column(nullable = false)
+    private Integer priority;
+}
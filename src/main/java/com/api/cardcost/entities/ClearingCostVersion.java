@@ -0,0 +1,41 @@
+package com.api.cardcost.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Clearing cost of a country from {@code validFrom} until the next version of the same country. A null
+ * cost marks the country as deleted from that instant.
+ */
+@Entity
+@Data
+@Table(name = "clearing_cost_versions", indexes = @Index(columnList = "countryCode, validFrom"))
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClearingCostVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false)
+    private String countryCode;
+    private Double cost;
+    @Column(nullable = false)
+    private Instant validFrom;
+
+    public ClearingCostVersion(String countryCode, Double cost, Instant validFrom) {
+        this.countryCode = countryCode;
+        this.cost = cost;
+        this.validFrom = validFrom;
+    }
+}
@@ -0,0 +1,26 @@
+package com.api.cardcost.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BinLookupStatsDto {
+
+    private int localRanges;
+    private long cacheSize;
+    private long cacheHits;
+    private long cacheMisses;
+    private long cacheEvictions;
+    private double cacheHitRate;
+    private long sharedCacheHits;
+    private long sharedCacheMisses;
+    private long coalescedLookups;
+    private long staleResponses;
+    private long hedgedLookups;
+    private List<BinProviderStatsDto> providers;
+}
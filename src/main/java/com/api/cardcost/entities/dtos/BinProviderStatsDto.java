@@ -0,0 +1,19 @@
+package com.api.cardcost.entities.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BinProviderStatsDto {
+
+    private String name;
+    private String circuitState;
+    private Double permitsPerSecond;
+    private long rejectedLookups;
+    private Double latencyP95Millis;
+}
@@ -0,0 +1,24 @@
+package com.api.cardcost.entities.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CardCostResultDto {
+
+    private String cardNumber;
+    private String countryCode;
+    private Double cost;
+    private int status;
+    private String error;
+    private Boolean stale;
+
+    public CardCostResultDto(String cardNumber, String countryCode, Double cost, int status, String error) {
+        this(cardNumber, countryCode, cost, status, error, null);
+    }
+}
@@ -4,10 +4,17 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class CardNumberDto {
 
-    private int cardNumber;
+    private String cardNumber;
+    private Instant asOf;
+
+    public CardNumberDto(String cardNumber) {
+        this.cardNumber = cardNumber;
+    }
 }
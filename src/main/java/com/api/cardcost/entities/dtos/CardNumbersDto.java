@@ -0,0 +1,21 @@
+package com.api.cardcost.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardNumbersDto {
+
+    private List<String> cardNumbers;
+    private Instant asOf;
+
+    public CardNumbersDto(List<String> cardNumbers) {
+        this.cardNumbers = cardNumbers;
+    }
+}
@@ -0,0 +1,18 @@
+package com.api.cardcost.entities.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClearingCostChangeDto {
+
+    private long sequence;
+    private String operation;
+    private String countryCode;
+    private Double cost;
+}
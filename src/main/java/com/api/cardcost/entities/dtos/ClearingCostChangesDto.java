@@ -0,0 +1,16 @@
+package com.api.cardcost.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClearingCostChangesDto {
+
+    private long sequence;
+    private List<ClearingCostChangeDto> changes;
+}
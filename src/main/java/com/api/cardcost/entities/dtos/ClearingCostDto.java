@@ -1,5 +1,6 @@
 package com.api.cardcost.entities.dtos;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,4 +12,12 @@ public class ClearingCostDto {
 
     private String countryCode;
     private Double cost;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean stale;
+
+    public ClearingCostDto(String countryCode, Double cost) {
+        this.countryCode = countryCode;
+        this.cost = cost;
+    }
 }
@@ -0,0 +1,17 @@
+package com.api.cardcost.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClearingCostImportDto {
+
+    private int received;
+    private int created;
+    private int updated;
+    private int unchanged;
+    private int deleted;
+}
@@ -0,0 +1,19 @@
+package com.api.cardcost.entities.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClearingCostRuleDto {
+
+    private Long id;
+    private String countryCode;
+    private String scheme;
+    private String cardType;
+    private Boolean prepaid;
+    private Double cost;
+    private Integer priority;
+}
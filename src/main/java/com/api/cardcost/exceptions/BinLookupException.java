@@ -0,0 +1,7 @@
+package com.api.cardcost.exceptions;
+
+public class BinLookupException extends RuntimeException {
+    public BinLookupException(String message) {
+        super(message, null, false, false);
+    }
+}
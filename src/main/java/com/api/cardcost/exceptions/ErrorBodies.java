@@ -0,0 +1,36 @@
+package com.api.cardcost.exceptions;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Immutable {@code {"error": message}} bodies. The {@link ErrorMessages} of the common pricing failures
+ * are preallocated once; any other message may carry request data such as a card number or a country code, so
+ * it gets a body of its own that is dropped with the response.
+ */
+public final class ErrorBodies {
+
+    public static final Map<String, String> INTERNAL_ERROR = Map.of("error", "Internal server error.");
+
+    private static final Map<String, Map<String, String>> PREALLOCATED = Stream.of(
+                    ErrorMessages.COUNTRY_NOT_FOUND,
+                    ErrorMessages.TOO_MANY_REQUESTS,
+                    ErrorMessages.CARD_NUMBER_MISSING,
+                    ErrorMessages.CARD_NUMBER_INVALID_LENGTH,
+                    ErrorMessages.CARD_NUMBER_NOT_DIGITS,
+                    ErrorMessages.CARD_NUMBER_INVALID_CHECK_DIGIT)
+            .collect(Collectors.toUnmodifiableMap(Function.identity(), message -> Map.of("error", message)));
+
+    private ErrorBodies() {
+    }
+
+    public static Map<String, String> of(String message) {
+        if (message == null) {
+            message = "";
+        }
+        Map<String, String> body = PREALLOCATED.get(message);
+        return body != null ? body : Map.of("error", message);
+    }
+}
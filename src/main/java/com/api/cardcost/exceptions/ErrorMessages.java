@@ -0,0 +1,18 @@
+package com.api.cardcost.exceptions;
+
+/**
+ * Fixed messages of the common pricing failures, shared by the services that report them and by
+ * {@link ErrorBodies}, which preallocates a body for each.
+ */
+public final class ErrorMessages {
+
+    public static final String COUNTRY_NOT_FOUND = "Country not found. Error: Country not found";
+    public static final String TOO_MANY_REQUESTS = "Too many requests. Error: 429 Too Many Requests";
+    public static final String CARD_NUMBER_MISSING = "Card number cannot be null.";
+    public static final String CARD_NUMBER_INVALID_LENGTH = "Card number must have between 8 and 19 digits.";
+    public static final String CARD_NUMBER_NOT_DIGITS = "Card number must contain only digits.";
+    public static final String CARD_NUMBER_INVALID_CHECK_DIGIT = "Card number failed the Luhn check.";
+
+    private ErrorMessages() {
+    }
+}
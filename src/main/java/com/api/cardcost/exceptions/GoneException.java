@@ -0,0 +1,7 @@
+package com.api.cardcost.exceptions;
+
+public class GoneException extends RuntimeException {
+    public GoneException(String message) {
+        super(message, null, false, false);
+    }
+}
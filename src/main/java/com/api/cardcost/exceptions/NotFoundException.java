@@ -2,6 +2,6 @@ package com.api.cardcost.exceptions;
 
 public class NotFoundException extends RuntimeException {
     public NotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
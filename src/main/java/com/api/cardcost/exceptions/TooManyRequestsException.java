@@ -2,6 +2,6 @@ package com.api.cardcost.exceptions;
 
 public class TooManyRequestsException extends RuntimeException {
     public TooManyRequestsException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,32 @@
+package com.api.cardcost.repositories;
+
+import com.api.cardcost.entities.ClearingCostRevision;
+import com.api.cardcost.entities.dtos.ClearingCostChangeDto;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ClearingCostBulkRepository {
+
+    Map<String, Double> findAllCosts();
+
+    int[] upsertAll(Map<String, Double> costs);
+
+    int[] deleteAllByCountryCode(Collection<String> countryCodes);
+
+    int[] insertVersions(Map<String, Double> costs, Instant validFrom);
+
+    boolean insertRevisionIfMissing(long epoch);
+
+    long incrementRevision(int changes);
+
+    ClearingCostRevision findRevision();
+
+    int[] insertChanges(List<ClearingCostChangeDto> changes);
+
+    int deleteChangesUpTo(long sequence);
+
+    List<ClearingCostChangeDto> findChanges(long after, long upTo, int limit);
+}
@@ -0,0 +1,129 @@
+package com.api.cardcost.repositories;
+
+import com.api.cardcost.entities.ClearingCostRevision;
+import com.api.cardcost.entities.dtos.ClearingCostChangeDto;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based writes for bulk imports, sent as single JDBC batches. The entity uses IDENTITY keys, which
+ * keeps Hibernate from batching inserts, so these bypass the persistence context. The upsert uses H2's
+ * {@code MERGE ... KEY} syntax. The clearing cost revision counter and change log are kept here as well.
+ */
+public class ClearingCostBulkRepositoryImpl implements ClearingCostBulkRepository {
+
+    private static final String UPSERT = "MERGE INTO clearing_costs (country_code, cost) KEY (country_code) VALUES (?, ?)";
+    private static final String DELETE = "DELETE FROM clearing_costs WHERE country_code = ?";
+    private static final String INSERT_VERSION =
+            "INSERT INTO clearing_cost_versions (country_code, cost, valid_from) VALUES (?, ?, ?)";
+    private static final String INSERT_REVISION = "INSERT INTO clearing_cost_revisions (id, revision, epoch) "
+            + "SELECT ?, 0, ? WHERE NOT EXISTS (SELECT 1 FROM clearing_cost_revisions WHERE id = ?)";
+    private static final String INCREMENT_REVISION =
+            "UPDATE clearing_cost_revisions SET revision = revision + ? WHERE id = ?";
+    private static final String SELECT_REVISION = "SELECT revision, epoch FROM clearing_cost_revisions WHERE id = ?";
+    private static final String INSERT_CHANGE =
+            "INSERT INTO clearing_cost_changes (sequence, operation, country_code, cost) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_CHANGES = "DELETE FROM clearing_cost_changes WHERE sequence <= ?";
+    private static final String SELECT_CHANGES = "SELECT sequence, operation, country_code, cost "
+            + "FROM clearing_cost_changes WHERE sequence > ? AND sequence <= ? ORDER BY sequence LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ClearingCostBulkRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Map<String, Double> findAllCosts() {
+        Map<String, Double> costs = new HashMap<>();
+        jdbcTemplate.query("SELECT country_code, cost FROM clearing_costs",
+                (RowCallbackHandler) resultSet -> costs.put(resultSet.getString(1), resultSet.getDouble(2)));
+        return costs;
+    }
+
+    @Override
+    public int[] upsertAll(Map<String, Double> costs) {
+        List<Object[]> rows = costs.entrySet().stream()
+                .map(cost -> new Object[]{cost.getKey(), cost.getValue()})
+                .toList();
+        return jdbcTemplate.batchUpdate(UPSERT, rows);
+    }
+
+    @Override
+    public int[] deleteAllByCountryCode(Collection<String> countryCodes) {
+        List<Object[]> rows = countryCodes.stream()
+                .map(countryCode -> new Object[]{countryCode})
+                .toList();
+        return jdbcTemplate.batchUpdate(DELETE, rows);
+    }
+
+    @Override
+    public int[] insertVersions(Map<String, Double> costs, Instant validFrom) {
+        OffsetDateTime timestamp = validFrom.atOffset(ZoneOffset.UTC);
+        List<Object[]> rows = costs.entrySet().stream()
+                .map(cost -> new Object[]{cost.getKey(), cost.getValue(), timestamp})
+                .toList();
+        return jdbcTemplate.batchUpdate(INSERT_VERSION, rows);
+    }
+
+    @Override
+    public boolean insertRevisionIfMissing(long epoch) {
+        try {
+            return jdbcTemplate.update(INSERT_REVISION, ClearingCostRevision.ID, epoch, ClearingCostRevision.ID) > 0;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Adds {@code changes} to the revision and returns the new value. The update locks the row until the
+     * transaction ends, so concurrent writers get consecutive revisions in commit order.
+     */
+    @Override
+    public long incrementRevision(int changes) {
+        if (jdbcTemplate.update(INCREMENT_REVISION, changes, ClearingCostRevision.ID) == 0) {
+            throw new IllegalStateException("The clearing cost revision row is missing.");
+        }
+        return findRevision().getRevision();
+    }
+
+    @Override
+    public ClearingCostRevision findRevision() {
+        List<ClearingCostRevision> revisions = jdbcTemplate.query(SELECT_REVISION,
+                (resultSet, row) -> new ClearingCostRevision(ClearingCostRevision.ID, resultSet.getLong(1),
+                        resultSet.getLong(2)),
+                ClearingCostRevision.ID);
+        return revisions.isEmpty() ? new ClearingCostRevision(ClearingCostRevision.ID, 0L, 0L) : revisions.get(0);
+    }
+
+    @Override
+    public int[] insertChanges(List<ClearingCostChangeDto> changes) {
+        List<Object[]> rows = changes.stream()
+                .map(change -> new Object[]{change.getSequence(), change.getOperation(), change.getCountryCode(),
+                        change.getCost()})
+                .toList();
+        return jdbcTemplate.batchUpdate(INSERT_CHANGE, rows);
+    }
+
+    @Override
+    public int deleteChangesUpTo(long sequence) {
+        return jdbcTemplate.update(DELETE_CHANGES, sequence);
+    }
+
+    @Override
+    public List<ClearingCostChangeDto> findChanges(long after, long upTo, int limit) {
+        return jdbcTemplate.query(SELECT_CHANGES,
+                (resultSet, row) -> new ClearingCostChangeDto(resultSet.getLong(1), resultSet.getString(2),
+                        resultSet.getString(3), resultSet.getObject(4, Double.class)),
+                after, upTo, limit);
+    }
+}
@@ -5,7 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
 
-public interface ClearingCostRepository extends JpaRepository<ClearingCost, Long> {
+public interface ClearingCostRepository extends JpaRepository<ClearingCost, Long>, ClearingCostBulkRepository {
 
     Optional<ClearingCost> findByCountryCode(String country);
 }
@@ -0,0 +1,7 @@
+package com.api.cardcost.repositories;
+
+import com.api.cardcost.entities.ClearingCostRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ClearingCostRuleRepository extends JpaRepository<ClearingCostRule, Long> {
+}
@@ -0,0 +1,11 @@
+package com.api.cardcost.repositories;
+
+import com.api.cardcost.entities.ClearingCostVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ClearingCostVersionRepository extends JpaRepository<ClearingCostVersion, Long> {
+
+    List<ClearingCostVersion> findAllByOrderByValidFromAscIdAsc();
+}
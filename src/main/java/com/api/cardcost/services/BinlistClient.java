@@ -1,49 +1,48 @@
 package com.api.cardcost.services;
 
-import com.api.cardcost.config.RestTemplateConfig;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import com.api.cardcost.services.bin.BinLookupProvider;
+import com.api.cardcost.services.bin.BinLookupResult;
+import com.api.cardcost.services.bin.HttpBinLookupProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.Map;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
-@Slf4j
 @Service
-public class BinlistClient {
+public class BinlistClient implements BinLookupProvider {
 
+    private static final String NAME = "binlist";
     private static final String BINLIST_URL = "https://lookup.binlist.net/";
 
-    private final RestTemplateConfig conn;
+    private final HttpBinLookupProvider httpProvider;
 
-    public BinlistClient(RestTemplateConfig conn) {
-        this.conn = conn;
+    public BinlistClient(HttpClient httpClient,
+                         @Value("${cardcost.binlist.read-timeout:3s}") Duration readTimeout) {
+        this.httpProvider = new HttpBinLookupProvider(NAME, BINLIST_URL, readTimeout, httpClient);
     }
 
-    public ResponseEntity<String> getCountryAlpha2(Integer cardNumber) {
-        try {
-            RestTemplate restTemplate = conn.restTemplate();
-            Map<String, Object> response = restTemplate.getForObject(BINLIST_URL + cardNumber, Map.class);
-            if (response != null && response.containsKey("country")) {
-                Map<String, Object> country = (Map<String, Object>) response.get("country");
-                return new ResponseEntity<>(country.get("alpha2").toString(), HttpStatus.OK);
-            }
-            return new ResponseEntity<>("Country not found", HttpStatus.NOT_FOUND);
-
-        } catch (HttpClientErrorException e) {
-            log.error("Client error: {} - {}", e.getStatusCode(), e.getStatusText());
-            if (e.getStatusCode().value() == 404) {
-                return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
-            } else if (e.getStatusCode().value() == 429) {
-                return new ResponseEntity<>(e.getMessage(), HttpStatus.TOO_MANY_REQUESTS);
-            }
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
-        } catch (Exception e) {
-            log.error("An error occurred: {}", e.getMessage());
-            return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
-        }
+    public BinLookupResult getCountryAlpha2(int bin) {
+        return httpProvider.lookup(bin);
     }
 
+    public CompletableFuture<BinLookupResult> getCountryAlpha2Async(int bin) {
+        return httpProvider.lookupAsync(bin);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public BinLookupResult lookup(int bin) {
+        return getCountryAlpha2(bin);
+    }
+
+    @Override
+    public CompletableFuture<BinLookupResult> lookupAsync(int bin) {
+        return getCountryAlpha2Async(bin);
+    }
 }
@@ -0,0 +1,82 @@
+package com.api.cardcost.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for each stage of the pricing pipeline and counters per outcome and country. Meters are
+ * created once and cached, so recording does not go through the registry lookup.
+ */
+@Component
+public class CardCostMetrics {
+
+    public enum Stage {
+        VALIDATION, BIN_RESOLUTION, COST_LOOKUP, RESPONSE
+    }
+
+    enum Outcome {
+        OK, INVALID, NOT_FOUND, TOO_MANY_REQUESTS, ERROR;
+
+        static Outcome of(int status) {
+            if (status == HttpStatus.OK.value()) {
+                return OK;
+            } else if (status == HttpStatus.BAD_REQUEST.value()) {
+                return INVALID;
+            } else if (status == HttpStatus.NOT_FOUND.value()) {
+                return NOT_FOUND;
+            } else if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                return TOO_MANY_REQUESTS;
+            }
+            return ERROR;
+        }
+    }
+
+    private static final String NO_COUNTRY = "none";
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Outcome, ConcurrentMap<String, Counter>> outcomeCounters = new EnumMap<>(Outcome.class);
+
+    public CardCostMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("cardcost.pricing.stage")
+                    .description("Time spent in each stage of pricing a card")
+                    .tag("stage", stage.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(1_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(registry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, new ConcurrentHashMap<>());
+        }
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOutcome(int status, String countryCode) {
+        Outcome outcome = Outcome.of(status);
+        String country = outcome == Outcome.OK && countryCode != null ? countryCode : NO_COUNTRY;
+        outcomeCounters.get(outcome)
+                .computeIfAbsent(country, c -> Counter.builder("cardcost.pricing.outcomes")
+                        .description("Priced cards by outcome and country")
+                        .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                        .tag("country", c)
+                        .register(registry))
+                .increment();
+    }
+}
@@ -1,69 +1,340 @@
 package com.api.cardcost.services;
 
 import com.api.cardcost.entities.ClearingCost;
+import com.api.cardcost.entities.ClearingCostRule;
+import com.api.cardcost.entities.dtos.ClearingCostChangesDto;
 import com.api.cardcost.entities.dtos.ClearingCostDto;
+import com.api.cardcost.entities.dtos.ClearingCostImportDto;
+import com.api.cardcost.entities.dtos.ClearingCostRuleDto;
+import com.api.cardcost.exceptions.BinLookupException;
+import com.api.cardcost.exceptions.ErrorMessages;
 import com.api.cardcost.exceptions.NotFoundException;
 import com.api.cardcost.exceptions.TooManyRequestsException;
 import com.api.cardcost.repositories.ClearingCostRepository;
+import com.api.cardcost.repositories.ClearingCostRuleRepository;
+import com.api.cardcost.entities.dtos.BinLookupStatsDto;
+import com.api.cardcost.entities.dtos.CardCostResultDto;
+import com.api.cardcost.services.bin.BinLookupResult;
+import com.api.cardcost.services.bin.BinResolver;
+import com.api.cardcost.services.bin.CardAttributes;
+import com.api.cardcost.services.bin.CardNumbers;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
 public class CardCostService {
 
-    private final BinlistClient binlistClient;
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final int MAX_CHANGES = 1000;
+    private static final int MAX_IMPORT_SIZE = 10000;
+
+    private final BinResolver binResolver;
     private final ClearingCostRepository clearingCostRepository;
+    private final ClearingCostTable clearingCostTable;
+    private final ClearingCostRevisions clearingCostRevisions;
+    private final ClearingCostChangeLog changeLog;
+    private final ClearingCostHistory clearingCostHistory;
+    private final ClearingCostRuleRepository clearingCostRuleRepository;
+    private final ClearingCostRules clearingCostRules;
+    private final CardCostMetrics metrics;
+    private final double defaultCost;
 
-    public CardCostService(BinlistClient binlistClient, ClearingCostRepository clearingCostRepository) {
-        this.binlistClient = binlistClient;
+    public CardCostService(BinResolver binResolver, ClearingCostRepository clearingCostRepository,
+                           ClearingCostTable clearingCostTable, ClearingCostRevisions clearingCostRevisions,
+                           ClearingCostChangeLog changeLog,
+                           ClearingCostHistory clearingCostHistory,
+                           ClearingCostRuleRepository clearingCostRuleRepository, ClearingCostRules clearingCostRules,
+                           CardCostMetrics metrics,
+                           @Value("${cardcost.clearing-costs.default-cost:10.0}") double defaultCost) {
+        this.binResolver = binResolver;
         this.clearingCostRepository = clearingCostRepository;
+        this.clearingCostTable = clearingCostTable;
+        this.clearingCostRevisions = clearingCostRevisions;
+        this.changeLog = changeLog;
+        this.clearingCostHistory = clearingCostHistory;
+        this.clearingCostRuleRepository = clearingCostRuleRepository;
+        this.clearingCostRules = clearingCostRules;
+        this.metrics = metrics;
+        this.defaultCost = defaultCost;
     }
 
-    public ClearingCostDto getCardCost(Integer cardNumber) throws Exception {
-        validateCardNumber(cardNumber);
+    /**
+     * A service sharing this one's clearing cost data, which resolves BINs with {@code binResolver} and records
+     * its pricing metrics in {@code metrics}.
+     */
+    public CardCostService withBinResolver(BinResolver binResolver, CardCostMetrics metrics) {
+        return new CardCostService(binResolver, clearingCostRepository, clearingCostTable, clearingCostRevisions,
+                changeLog, clearingCostHistory, clearingCostRuleRepository, clearingCostRules, metrics, defaultCost);
+    }
 
-        ResponseEntity<?> response = binlistClient.getCountryAlpha2(cardNumber);
-        if (response.getStatusCode() == HttpStatus.OK) {
-            return createResponse(response.getBody().toString());
-        } else {
-            handleErrorResponse(response);
-            return null;
+    public ClearingCostDto getCardCost(String cardNumber) {
+        return getCardCost(cardNumber, null);
+    }
+
+    /**
+     * Prices the card at the clearing cost in force at {@code asOf}, or at the current cost when it is null.
+     * Lookup failures are thrown as stackless exceptions; {@link #resolveCardCost} returns them instead.
+     */
+    public ClearingCostDto getCardCost(String cardNumber, Instant asOf) {
+        CardCostResultDto result = resolveCardCost(cardNumber, asOf);
+        switch (result.getStatus()) {
+            case 200 -> {
+                return new ClearingCostDto(result.getCountryCode(), result.getCost(), result.getStale());
+            }
+            case 400 -> throw new IllegalArgumentException(result.getError());
+            case 404 -> throw new NotFoundException(result.getError());
+            case 429 -> throw new TooManyRequestsException(result.getError());
+            default -> throw new BinLookupException(result.getError());
         }
     }
 
-    private void validateCardNumber(Integer cardNumber) {
-        if (cardNumber == null) {
-            throw new IllegalArgumentException("Card number cannot be null.");
-        } else if (cardNumber.toString().length() < 8 || cardNumber.toString().length() > 19) {
-            throw new IllegalArgumentException("Card number must have between 8 and 19 digits.");
+    /**
+     * Same as {@link #getCardCost(String, Instant)}, with an invalid card number or a failed lookup reported
+     * through the status and error of the result rather than thrown.
+     */
+    public CardCostResultDto resolveCardCost(String cardNumber, Instant asOf) {
+        long start = System.nanoTime();
+        int bin = CardNumbers.parseBin(cardNumber);
+        if (bin < 0) {
+            return createInvalidResult(cardNumber, bin);
         }
+        long validated = System.nanoTime();
+        metrics.recordStage(CardCostMetrics.Stage.VALIDATION, validated - start);
+
+        BinLookupResult result = binResolver.resolve(bin);
+        long resolved = System.nanoTime();
+        metrics.recordStage(CardCostMetrics.Stage.BIN_RESOLUTION, resolved - validated);
+
+        CardCostResultDto cardCost = createResult(cardNumber, result, asOf);
+        if (result.isFound()) {
+            metrics.recordStage(CardCostMetrics.Stage.COST_LOOKUP, System.nanoTime() - resolved);
+        }
+        return cardCost;
     }
 
-    private ClearingCostDto createResponse(String countryCode) {
-        Optional<ClearingCost> clearingCost = clearingCostRepository.findByCountryCode(countryCode);
-        double cost = clearingCost.map(ClearingCost::getCost).orElse(10.0);
-        return new ClearingCostDto(countryCode, cost);
+    public List<CardCostResultDto> getCardCosts(List<String> cardNumbers) {
+        return getCardCosts(cardNumbers, null);
+    }
+
+    public List<CardCostResultDto> getCardCosts(List<String> cardNumbers, Instant asOf) {
+        if (cardNumbers == null || cardNumbers.isEmpty()) {
+            throw new IllegalArgumentException("Card numbers cannot be empty.");
+        } else if (cardNumbers.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("A batch cannot have more than " + MAX_BATCH_SIZE + " card numbers.");
+        }
+
+        long start = System.nanoTime();
+        int[] bins = new int[cardNumbers.size()];
+        Set<Integer> distinctBins = new HashSet<>();
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] = CardNumbers.parseBin(cardNumbers.get(i));
+            if (bins[i] >= 0) {
+                distinctBins.add(bins[i]);
+            }
+        }
+        long validated = System.nanoTime();
+        metrics.recordStage(CardCostMetrics.Stage.VALIDATION, validated - start);
+
+        Map<Integer, BinLookupResult> results = binResolver.resolveAll(distinctBins);
+        long resolved = System.nanoTime();
+        metrics.recordStage(CardCostMetrics.Stage.BIN_RESOLUTION, resolved - validated);
+
+        List<CardCostResultDto> cardCosts = new ArrayList<>(bins.length);
+        for (int i = 0; i < bins.length; i++) {
+            cardCosts.add(bins[i] >= 0
+                    ? createResult(cardNumbers.get(i), results.get(bins[i]), asOf)
+                    : createInvalidResult(cardNumbers.get(i), bins[i]));
+        }
+        metrics.recordStage(CardCostMetrics.Stage.COST_LOOKUP, System.nanoTime() - resolved);
+        return cardCosts;
+    }
+
+    public CompletableFuture<CardCostResultDto> getCardCostResult(String cardNumber) {
+        int bin = CardNumbers.parseBin(cardNumber);
+        if (bin < 0) {
+            return CompletableFuture.completedFuture(createInvalidResult(cardNumber, bin));
+        }
+        return binResolver.resolveAsync(bin)
+                .thenApply(result -> createResult(cardNumber, result, null));
+    }
+
+    private CardCostResultDto createInvalidResult(String cardNumber, int errorCode) {
+        metrics.recordOutcome(HttpStatus.BAD_REQUEST.value(), null);
+        return new CardCostResultDto(CardNumbers.mask(cardNumber), null, null, HttpStatus.BAD_REQUEST.value(),
+                CardNumbers.errorMessage(errorCode));
+    }
+
+    private CardCostResultDto createResult(String cardNumber, BinLookupResult result, Instant asOf) {
+        int status = result.status().httpStatus();
+        if (result.isFound()) {
+            double cost = cost(result, asOf);
+            metrics.recordOutcome(status, result.countryCode());
+            return new CardCostResultDto(CardNumbers.mask(cardNumber), result.countryCode(), cost, status, null,
+                    result.stale() ? Boolean.TRUE : null);
+        }
+        metrics.recordOutcome(status, null);
+        return new CardCostResultDto(CardNumbers.mask(cardNumber), null, null, status, errorMessage(result));
     }
 
-    private void handleErrorResponse(ResponseEntity<?> response) throws Exception {
-        HttpStatus status = (HttpStatus) response.getStatusCode();
-        String message = "Error: " + response.getBody();
-        switch (status) {
-            case NOT_FOUND -> throw new NotFoundException("Country not found. " + message);
-            case TOO_MANY_REQUESTS -> throw new TooManyRequestsException("Too many requests. " + message);
-            default -> throw new Exception("An error occurred. " + message);
+    /**
+     * Current pricing takes the best matching clearing cost rule, then the country's cost, then the default.
+     * Rules are not effective-dated, so pricing as of a past instant uses the country cost history only.
+     */
+    private double cost(BinLookupResult result, Instant asOf) {
+        String countryCode = result.countryCode();
+        if (asOf != null) {
+            return clearingCostHistory.cost(countryCode, asOf, defaultCost);
         }
+        double cost = clearingCostRules.cost(countryCode, result.attributes());
+        return Double.isNaN(cost) ? clearingCostTable.cost(countryCode, defaultCost) : cost;
     }
 
+    private static String errorMessage(BinLookupResult result) {
+        if (result == BinLookupResult.COUNTRY_NOT_FOUND) {
+            return ErrorMessages.COUNTRY_NOT_FOUND;
+        } else if (result == BinLookupResult.TOO_MANY_REQUESTS) {
+            return ErrorMessages.TOO_MANY_REQUESTS;
+        }
+        String message = "Error: " + result.message();
+        return switch (result.status()) {
+            case NOT_FOUND -> "Country not found. " + message;
+            case THROTTLED -> "Too many requests. " + message;
+            default -> "An error occurred. " + message;
+        };
+    }
+
+    @Transactional
     public void createClearingCost(ClearingCostDto clearingCostDto) {
         validateClearingCostDto(clearingCostDto);
+        changeLog.record(ClearingCostChangeLog.Operation.CREATED, clearingCostDto.getCountryCode(),
+                clearingCostDto.getCost());
         clearingCostRepository.save(new ClearingCost(clearingCostDto.getCountryCode(), clearingCostDto.getCost()));
+        clearingCostTable.put(clearingCostDto.getCountryCode(), clearingCostDto.getCost());
+        clearingCostHistory.record(clearingCostDto.getCountryCode(), clearingCostDto.getCost());
+    }
+
+    @Transactional
+    public ClearingCostImportDto importClearingCosts(List<ClearingCostDto> clearingCosts, boolean replace) {
+        Map<String, Double> costs = validateImport(clearingCosts);
+        Map<String, Double> existing = clearingCostRepository.findAllCosts();
+
+        Map<String, Double> changed = new LinkedHashMap<>();
+        List<ClearingCostChangeLog.Change> changes = new ArrayList<>();
+        int created = 0;
+        int updated = 0;
+        for (Map.Entry<String, Double> cost : costs.entrySet()) {
+            Double previous = existing.get(cost.getKey());
+            if (previous == null) {
+                created++;
+                changed.put(cost.getKey(), cost.getValue());
+                changes.add(new ClearingCostChangeLog.Change(ClearingCostChangeLog.Operation.CREATED, cost.getKey(),
+                        cost.getValue()));
+            } else if (!previous.equals(cost.getValue())) {
+                updated++;
+                changed.put(cost.getKey(), cost.getValue());
+                changes.add(new ClearingCostChangeLog.Change(ClearingCostChangeLog.Operation.UPDATED, cost.getKey(),
+                        cost.getValue()));
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        if (replace) {
+            for (String countryCode : existing.keySet()) {
+                if (!costs.containsKey(countryCode)) {
+                    removed.add(countryCode);
+                    changes.add(new ClearingCostChangeLog.Change(ClearingCostChangeLog.Operation.DELETED, countryCode,
+                            null));
+                }
+            }
+        }
+
+        if (!changes.isEmpty()) {
+            changeLog.record(changes);
+        }
+        if (!changed.isEmpty()) {
+            clearingCostRepository.upsertAll(changed);
+        }
+        if (!removed.isEmpty()) {
+            clearingCostRepository.deleteAllByCountryCode(removed);
+        }
+        clearingCostTable.update(changed, removed);
+        Map<String, Double> versions = new LinkedHashMap<>(changed);
+        removed.forEach(countryCode -> versions.put(countryCode, null));
+        clearingCostHistory.recordAll(versions);
+        return new ClearingCostImportDto(costs.size(), created, updated, costs.size() - created - updated,
+                removed.size());
+    }
+
+    @Transactional
+    public ClearingCostImportDto importClearingCostsCsv(String csv, boolean replace) {
+        return importClearingCosts(parseClearingCostsCsv(csv), replace);
+    }
+
+    private Map<String, Double> validateImport(List<ClearingCostDto> clearingCosts) {
+        if (clearingCosts == null || clearingCosts.isEmpty()) {
+            throw new IllegalArgumentException("Import must contain at least one clearing cost.");
+        }
+        if (clearingCosts.size() > MAX_IMPORT_SIZE) {
+            throw new IllegalArgumentException("Import cannot contain more than " + MAX_IMPORT_SIZE + " clearing costs.");
+        }
+
+        Map<String, Double> costs = new LinkedHashMap<>();
+        for (int i = 0; i < clearingCosts.size(); i++) {
+            ClearingCostDto clearingCost = clearingCosts.get(i);
+            try {
+                if (clearingCost == null) {
+                    throw new IllegalArgumentException("Clearing cost cannot be null.");
+                }
+                validateClearingCostDto(clearingCost);
+                if (costs.put(clearingCost.getCountryCode(), clearingCost.getCost()) != null) {
+                    throw new IllegalArgumentException("Duplicate country code " + clearingCost.getCountryCode() + ".");
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        return costs;
+    }
+
+    private static List<ClearingCostDto> parseClearingCostsCsv(String csv) {
+        List<ClearingCostDto> clearingCosts = new ArrayList<>();
+        String[] lines = csv == null ? new String[0] : csv.split("\\R");
+        boolean firstRow = true;
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length != 2) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": Expected countryCode,cost.");
+            }
+            String countryCode = fields[0].strip();
+            if (firstRow && countryCode.equalsIgnoreCase("countryCode")) {
+                firstRow = false;
+                continue;
+            }
+            firstRow = false;
+            try {
+                clearingCosts.add(new ClearingCostDto(countryCode, Double.valueOf(fields[1].strip())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": Cost must be a number.");
+            }
+        }
+        return clearingCosts;
     }
 
     private void validateClearingCostDto(ClearingCostDto clearingCostDto) {
@@ -75,12 +346,16 @@ public class CardCostService {
         }
     }
 
+    @Transactional
     public void deleteClearingCost(String countryCode) {
         validateCountryCode(countryCode);
 
         Optional<ClearingCost> clearingCost = clearingCostRepository.findByCountryCode(countryCode);
         if (clearingCost.isPresent()) {
+            changeLog.record(ClearingCostChangeLog.Operation.DELETED, countryCode, null);
             clearingCostRepository.delete(clearingCost.get());
+            clearingCostTable.remove(countryCode);
+            clearingCostHistory.record(countryCode, null);
         } else {
             throw new NotFoundException("Country not found.");
         }
@@ -92,6 +367,7 @@ public class CardCostService {
         }
     }
 
+    @Transactional
     public ClearingCostDto updateClearingCost(ClearingCostDto clearingCostDto) {
         validateClearingCostDto(clearingCostDto);
 
@@ -99,8 +375,12 @@ public class CardCostService {
         Optional<ClearingCost> clearingCost = clearingCostRepository.findByCountryCode(clearingCostDto.getCountryCode());
 
         if (clearingCost.isPresent()) {
+            changeLog.record(ClearingCostChangeLog.Operation.UPDATED, clearingCostDto.getCountryCode(),
+                    clearingCostDto.getCost());
             clearingCost.get().setCost(clearingCostDto.getCost());
             clearingCostRepository.save(clearingCost.get());
+            clearingCostTable.put(clearingCost.get().getCountryCode(), clearingCost.get().getCost());
+            clearingCostHistory.record(clearingCost.get().getCountryCode(), clearingCost.get().getCost());
             updatedDto.setCountryCode(clearingCost.get().getCountryCode());
             updatedDto.setCost(clearingCost.get().getCost());
         } else {
@@ -110,6 +390,7 @@ public class CardCostService {
         return updatedDto;
     }
 
+    @Transactional(readOnly = true)
     public ClearingCostDto getClearingCost(String countryCode) {
         validateCountryCode(countryCode);
 
@@ -121,6 +402,90 @@ public class CardCostService {
         }
     }
 
+    public ClearingCostRevisions.Revision getClearingCostRevision() {
+        return clearingCostRevisions.current();
+    }
+
+    /**
+     * The clearing cost with the revision it was read at. Both come from the same read-only transaction, so a
+     * lagging replica answers an older revision along with its older rows.
+     */
+    @Transactional(readOnly = true)
+    public ClearingCostRevisions.Revisioned<ClearingCostDto> getClearingCostAtRevision(String countryCode) {
+        ClearingCostRevisions.Revision revision = clearingCostRevisions.current();
+        return new ClearingCostRevisions.Revisioned<>(revision, getClearingCost(countryCode));
+    }
+
+    @Transactional(readOnly = true)
+    public ClearingCostRevisions.Revisioned<List<ClearingCostDto>> getAllClearingCostAtRevision() {
+        ClearingCostRevisions.Revision revision = clearingCostRevisions.current();
+        return new ClearingCostRevisions.Revisioned<>(revision, getAllClearingCost());
+    }
+
+    @Transactional
+    public ClearingCostRuleDto createClearingCostRule(ClearingCostRuleDto clearingCostRuleDto) {
+        ClearingCostRule rule = validateClearingCostRule(clearingCostRuleDto);
+        clearingCostRevisions.increment(1);
+        rule = clearingCostRuleRepository.save(rule);
+        clearingCostRules.update();
+        return toDto(rule);
+    }
+
+    @Transactional
+    public void deleteClearingCostRule(Long id) {
+        ClearingCostRule rule = clearingCostRuleRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Clearing cost rule not found."));
+        clearingCostRevisions.increment(1);
+        clearingCostRuleRepository.delete(rule);
+        clearingCostRules.update();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ClearingCostRuleDto> getClearingCostRules() {
+        return clearingCostRuleRepository.findAll().stream().map(CardCostService::toDto).toList();
+    }
+
+    private ClearingCostRule validateClearingCostRule(ClearingCostRuleDto dto) {
+        if (dto.getCountryCode() != null && dto.getCountryCode().length() != 2) {
+            throw new IllegalArgumentException("Country code must have 2 characters.");
+        }
+        if (dto.getCost() == null || dto.getCost() < 0) {
+            throw new IllegalArgumentException("Cost cannot be null or negative.");
+        }
+        String scheme = null;
+        if (dto.getScheme() != null) {
+            CardAttributes.Scheme parsed = CardAttributes.parseScheme(dto.getScheme());
+            if (parsed == CardAttributes.Scheme.UNKNOWN
+                    || parsed == CardAttributes.Scheme.OTHER && !dto.getScheme().equalsIgnoreCase("other")) {
+                throw new IllegalArgumentException("Unknown card scheme " + dto.getScheme() + ".");
+            }
+            scheme = parsed.name();
+        }
+        String cardType = null;
+        if (dto.getCardType() != null) {
+            CardAttributes.Type parsed = CardAttributes.parseType(dto.getCardType());
+            if (parsed == CardAttributes.Type.UNKNOWN) {
+                throw new IllegalArgumentException("Card type must be DEBIT or CREDIT.");
+            }
+            cardType = parsed.name();
+        }
+        return new ClearingCostRule(null, dto.getCountryCode(), scheme, cardType, dto.getPrepaid(), dto.getCost(),
+                dto.getPriority() != null ? dto.getPriority() : 0);
+    }
+
+    private static ClearingCostRuleDto toDto(ClearingCostRule rule) {
+        return new ClearingCostRuleDto(rule.getId(), rule.getCountryCode(), rule.getScheme(), rule.getCardType(),
+                rule.getPrepaid(), rule.getCost(), rule.getPriority());
+    }
+
+    public ClearingCostChangesDto getClearingCostChanges(long since, int limit) {
+        if (limit < 1 || limit > MAX_CHANGES) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_CHANGES + ".");
+        }
+        return changeLog.changesSince(since, limit);
+    }
+
+    @Transactional(readOnly = true)
     public List<ClearingCostDto> getAllClearingCost() {
         List<ClearingCost> clearingCosts = clearingCostRepository.findAll();
         if (clearingCosts.isEmpty()) {
@@ -131,4 +496,8 @@ public class CardCostService {
                 .map(clearingCost -> new ClearingCostDto(clearingCost.getCountryCode(), clearingCost.getCost()))
                 .toList();
     }
+
+    public BinLookupStatsDto getBinLookupStats() {
+        return binResolver.stats();
+    }
 }
@@ -0,0 +1,68 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.dtos.CardCostResultDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Prices a newline-delimited stream of card numbers and writes one NDJSON result per input line, in
+ * input order. At most {@code windowSize} cards are in flight: once the window is full, reading stops
+ * until the oldest result has been written.
+ */
+@Service
+public class CardCostStreamer {
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final CardCostService cardCostService;
+    private final ObjectMapper objectMapper;
+    private final int windowSize;
+
+    public CardCostStreamer(CardCostService cardCostService, ObjectMapper objectMapper,
+                            @Value("${cardcost.stream.window-size:256}") int windowSize) {
+        this.cardCostService = cardCostService;
+        this.objectMapper = objectMapper;
+        this.windowSize = windowSize;
+    }
+
+    public void stream(InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Deque<CompletableFuture<CardCostResultDto>> window = new ArrayDeque<>(windowSize);
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (window.size() == windowSize) {
+                write(window.poll(), output);
+            }
+            window.add(cardCostService.getCardCostResult(line));
+        }
+        while (!window.isEmpty()) {
+            write(window.poll(), output);
+        }
+        output.flush();
+    }
+
+
+    private void write(CompletableFuture<CardCostResultDto> result, OutputStream output) throws IOException {
+        if (!result.isDone()) {
+            output.flush();
+        }
+        output.write(objectMapper.writeValueAsBytes(result.join()));
+        output.write(NEWLINE);
+    }
+}
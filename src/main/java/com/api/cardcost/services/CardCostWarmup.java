@@ -0,0 +1,130 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.controllers.CardCostController;
+import com.api.cardcost.entities.dtos.CardNumberDto;
+import com.api.cardcost.entities.dtos.CardNumbersDto;
+import com.api.cardcost.services.bin.BinCacheSnapshot;
+import com.api.cardcost.services.bin.BinCountryCache;
+import com.api.cardcost.services.bin.BinResolver;
+import com.api.cardcost.services.bin.CardNumbers;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warms the instance up before it takes traffic: reloads the clearing cost table, restores the hot
+ * BINs saved by the previous instance and drives the pricing endpoints with those BINs until the JIT
+ * has compiled them. Spring Boot reports the readiness state as ACCEPTING_TRAFFIC only after every
+ * ApplicationRunner has returned.
+ * <p>
+ * The calls go through copies of the live controller, service and resolver, derived from the beans
+ * themselves, with their own meter registry and a private copy of the hot BINs. Warm-up traffic therefore
+ * never shows up in the pricing or BIN cache metrics, and never touches the live cache. The resolver copy
+ * is offline, so warm-up never calls binlist.
+ */
+@Slf4j
+@Component
+public class CardCostWarmup implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 16;
+
+    private final ClearingCostTable clearingCostTable;
+    private final BinCacheSnapshot binCacheSnapshot;
+    private final BinCountryCache binCountryCache;
+    private final BinResolver binResolver;
+    private final CardCostService cardCostService;
+    private final CardCostController cardCostController;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int iterations;
+    private final Duration binCacheTtl;
+
+    public CardCostWarmup(ClearingCostTable clearingCostTable, BinCacheSnapshot binCacheSnapshot,
+                          BinCountryCache binCountryCache, BinResolver binResolver, CardCostService cardCostService,
+                          CardCostController cardCostController, ObjectMapper objectMapper,
+                          @Value("${cardcost.warmup.enabled:true}") boolean enabled,
+                          @Value("${cardcost.warmup.iterations:10000}") int iterations,
+                          @Value("${cardcost.bin-cache.ttl:24h}") Duration binCacheTtl) {
+        this.clearingCostTable = clearingCostTable;
+        this.binCacheSnapshot = binCacheSnapshot;
+        this.binCountryCache = binCountryCache;
+        this.binResolver = binResolver;
+        this.cardCostService = cardCostService;
+        this.cardCostController = cardCostController;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.binCacheTtl = binCacheTtl;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            clearingCostTable.reload();
+            int restored = binCacheSnapshot.load();
+            BinCountryCache warmupCache = new BinCountryCache(BATCH_SIZE, binCacheTtl, binCacheTtl, Duration.ZERO);
+            List<String> cardNumbers = warmupCardNumbers(warmupCache);
+            if (!cardNumbers.isEmpty()) {
+                exercise(warmupController(warmupCache, new SimpleMeterRegistry()), cardNumbers);
+            }
+            log.info("Warm-up finished in {} ms: {} hot BINs restored, {} pricing calls.",
+                    (System.nanoTime() - start) / 1_000_000, restored, cardNumbers.isEmpty() ? 0 : iterations);
+        } catch (Exception e) {
+            log.warn("Warm-up aborted, the instance starts cold: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Copies the hottest fresh BINs of the live cache, with their age, into the warm-up cache.
+     */
+    private List<String> warmupCardNumbers(BinCountryCache warmupCache) {
+        List<String> cardNumbers = new ArrayList<>();
+        binCountryCache.hottest(BATCH_SIZE).forEach((bin, entry) -> {
+            if (binCountryCache.peek(bin) != null) {
+                warmupCache.putFound(bin, entry.countryCode(), entry.attributes(), binCountryCache.age(entry));
+                cardNumbers.add(cardNumber(bin));
+            }
+        });
+        return cardNumbers;
+    }
+
+    private CardCostController warmupController(BinCountryCache warmupCache, MeterRegistry meterRegistry) {
+        return cardCostController.withService(cardCostService.withBinResolver(
+                binResolver.offline(warmupCache, meterRegistry), new CardCostMetrics(meterRegistry)));
+    }
+
+    private void exercise(CardCostController controller, List<String> cardNumbers) throws Exception {
+        CardNumbersDto batch = new CardNumbersDto(cardNumbers);
+        for (int i = 0; i < iterations; i++) {
+            CardNumberDto cardNumber = new CardNumberDto(cardNumbers.get(i % cardNumbers.size()));
+            objectMapper.writeValueAsBytes(controller.getCardCost(cardNumber).getBody());
+            if (i % BATCH_SIZE == 0) {
+                objectMapper.writeValueAsBytes(controller.getCardCosts(batch).getBody());
+            }
+        }
+    }
+
+    static String cardNumber(int bin) {
+        String payload = String.format("%08d0000000", bin);
+        for (int digit = 0; digit <= 9; digit++) {
+            String cardNumber = payload + digit;
+            if (CardNumbers.parseBin(cardNumber) == bin) {
+                return cardNumber;
+            }
+        }
+        throw new IllegalStateException("No check digit for BIN " + bin);
+    }
+}
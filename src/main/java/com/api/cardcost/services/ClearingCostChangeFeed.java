@@ -0,0 +1,105 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.dtos.ClearingCostChangeDto;
+import com.api.cardcost.entities.dtos.ClearingCostChangesDto;
+import com.api.cardcost.exceptions.GoneException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server-Sent Events view of {@link ClearingCostChangeLog}. Every subscriber keeps the last sequence it
+ * was sent; on each new change it is sent everything after that from the log, so events are never
+ * skipped or reordered. Sends happen on a single dispatcher thread, never on the committing thread, and
+ * changes committed by other instances reach subscribers when the log next polls the database.
+ */
+@Slf4j
+@Service
+public class ClearingCostChangeFeed {
+
+    static final String EVENT_NAME = "clearing-cost";
+    private static final int BATCH_SIZE = 1000;
+
+    private final ClearingCostChangeLog changeLog;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "clearing-cost-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ClearingCostChangeFeed(ClearingCostChangeLog changeLog) {
+        this.changeLog = changeLog;
+        changeLog.addListener(sequence -> dispatcher.execute(this::publish));
+    }
+
+    public SseEmitter subscribe(Long since) {
+        long from = since != null ? since : changeLog.lastSequence();
+        changeLog.changesSince(from, 0);
+
+        Subscriber subscriber = new Subscriber(new SseEmitter(), from);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        dispatcher.execute(() -> catchUp(subscriber));
+        return subscriber.emitter;
+    }
+
+    int subscribers() {
+        return subscribers.size();
+    }
+
+    private void publish() {
+        subscribers.forEach(this::catchUp);
+    }
+
+    private void catchUp(Subscriber subscriber) {
+        try {
+            ClearingCostChangesDto changes;
+            do {
+                changes = changeLog.changesSince(subscriber.lastSent, BATCH_SIZE);
+                for (ClearingCostChangeDto change : changes.getChanges()) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(change.getSequence()))
+                            .name(EVENT_NAME)
+                            .data(change, MediaType.APPLICATION_JSON));
+                    subscriber.lastSent = change.getSequence();
+                }
+                subscriber.lastSent = changes.getSequence();
+            } while (!changes.getChanges().isEmpty());
+        } catch (GoneException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping clearing cost feed subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        dispatcher.shutdownNow();
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private long lastSent;
+
+        private Subscriber(SseEmitter emitter, long lastSent) {
+            this.emitter = emitter;
+            this.lastSent = lastSent;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.dtos.ClearingCostChangeDto;
+import com.api.cardcost.entities.dtos.ClearingCostChangesDto;
+import com.api.cardcost.exceptions.GoneException;
+import com.api.cardcost.repositories.ClearingCostRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Sequenced log of committed clearing cost changes, stored in {@code clearing_cost_changes}. A write takes
+ * its sequences from the clearing cost revision in its own transaction, so every instance sharing the
+ * database sees one gapless order per write, and the last {@code capacity} revisions are kept. Listeners
+ * hear about local commits at once and about other instances' commits on the next poll of the revision.
+ */
+@Component
+public class ClearingCostChangeLog {
+
+    public enum Operation {CREATED, UPDATED, DELETED}
+
+    public record Change(Operation operation, String countryCode, Double cost) {
+    }
+
+    private final ClearingCostRevisions clearingCostRevisions;
+    private final ClearingCostRepository clearingCostRepository;
+    private final int capacity;
+    private final List<LongConsumer> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong notifiedSequence = new AtomicLong();
+
+    public ClearingCostChangeLog(ClearingCostRevisions clearingCostRevisions,
+                                 ClearingCostRepository clearingCostRepository,
+                                 @Value("${cardcost.clearing-cost-changes.capacity:10000}") int capacity) {
+        this.clearingCostRevisions = clearingCostRevisions;
+        this.clearingCostRepository = clearingCostRepository;
+        this.capacity = capacity;
+    }
+
+    public long record(Operation operation, String countryCode, Double cost) {
+        return record(List.of(new Change(operation, countryCode, cost)));
+    }
+
+    /**
+     * Increments the clearing cost revision by the number of changes and stores them under the new
+     * revisions, within the caller's transaction. Must be called before the rows are written, so the
+     * revision row lock orders concurrent writers. Returns the last sequence.
+     */
+    public long record(List<Change> changes) {
+        long last = clearingCostRevisions.increment(changes.size());
+        long sequence = last - changes.size();
+        List<ClearingCostChangeDto> rows = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            rows.add(new ClearingCostChangeDto(++sequence, change.operation().name(), change.countryCode(),
+                    change.operation() == Operation.DELETED ? null : change.cost()));
+        }
+        clearingCostRepository.insertChanges(rows);
+        clearingCostRepository.deleteChangesUpTo(last - capacity);
+        ClearingCostTable.afterCommit(() -> notifyListeners(last));
+        return last;
+    }
+
+    public long lastSequence() {
+        return clearingCostRevisions.current().number();
+    }
+
+    /**
+     * Changes after {@code since}, oldest first and at most {@code limit} of them. Throws
+     * {@link GoneException} when changes after {@code since} have already been pruned or {@code since}
+     * is ahead of the log.
+     */
+    public ClearingCostChangesDto changesSince(long since, int limit) {
+        long last = lastSequence();
+        if (since < last - capacity || since > last) {
+            throw new GoneException("Change sequence " + since + " is no longer available, reload all clearing costs.");
+        }
+        if (limit == 0 || since == last) {
+            return new ClearingCostChangesDto(since, List.of());
+        }
+        List<ClearingCostChangeDto> changes = clearingCostRepository.findChanges(since, last, limit);
+        long cursor = changes.size() < limit ? last : changes.get(changes.size() - 1).getSequence();
+        return new ClearingCostChangesDto(cursor, changes);
+    }
+
+    /**
+     * Registers a callback run with each new sequence, on the committing thread or the polling thread, so
+     * it must not block.
+     */
+    public void addListener(LongConsumer listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(initialDelayString = "${cardcost.clearing-cost-changes.poll-interval-ms:1000}",
+            fixedDelayString = "${cardcost.clearing-cost-changes.poll-interval-ms:1000}")
+    public void poll() {
+        notifyListeners(lastSequence());
+    }
+
+    private void notifyListeners(long sequence) {
+        if (notifiedSequence.getAndAccumulate(sequence, Math::max) < sequence) {
+            listeners.forEach(listener -> listener.accept(sequence));
+        }
+    }
+}
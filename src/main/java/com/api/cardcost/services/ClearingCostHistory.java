@@ -0,0 +1,204 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.ClearingCostVersion;
+import com.api.cardcost.repositories.ClearingCostRepository;
+import com.api.cardcost.repositories.ClearingCostVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Effective-dated clearing costs. Every write appends a version to {@code clearing_cost_versions} in its own
+ * transaction, valid from the time it was written; in memory each country keeps its versions as sorted arrays of start instants
+ * and costs, so a point-in-time lookup is one binary search and never touches the history table. Countries
+ * already present when the history was introduced get a version valid since the epoch.
+ */
+@Slf4j
+@Component
+public class ClearingCostHistory implements SmartInitializingSingleton {
+
+    private static final int SLOTS = 1 << 14;
+
+    private final ClearingCostVersionRepository versionRepository;
+    private final ClearingCostRepository clearingCostRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final ReentrantLock publishLock = new ReentrantLock();
+
+    private volatile Timeline[] timelines = new Timeline[SLOTS];
+
+    @Autowired
+    public ClearingCostHistory(ClearingCostVersionRepository versionRepository,
+                               ClearingCostRepository clearingCostRepository,
+                               PlatformTransactionManager transactionManager) {
+        this(versionRepository, clearingCostRepository, transactionManager, Clock.systemUTC());
+    }
+
+    ClearingCostHistory(ClearingCostVersionRepository versionRepository,
+                        ClearingCostRepository clearingCostRepository, PlatformTransactionManager transactionManager,
+                        Clock clock) {
+        this.versionRepository = versionRepository;
+        this.clearingCostRepository = clearingCostRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.clock = clock;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        load(transactionTemplate.execute(status -> backfill()));
+    }
+
+    /**
+     * Rebuilds the timelines from the committed versions, for writes made by other instances.
+     */
+    public void reload() {
+        load(transactionTemplate.execute(status -> versionRepository.findAllByOrderByValidFromAscIdAsc()));
+    }
+
+    private void load(List<ClearingCostVersion> versions) {
+        Map<Integer, Timeline> loaded = new HashMap<>();
+        for (ClearingCostVersion version : versions) {
+            int slot = ClearingCostTable.slot(version.getCountryCode());
+            if (slot >= 0) {
+                loaded.put(slot, Timeline.with(loaded.get(slot), version.getValidFrom().toEpochMilli(),
+                        version.getCost()));
+            }
+        }
+        Timeline[] next = new Timeline[SLOTS];
+        loaded.forEach((slot, timeline) -> next[slot] = timeline);
+        publishLock.lock();
+        try {
+            timelines = next;
+        } finally {
+            publishLock.unlock();
+        }
+        log.info("Loaded {} clearing cost versions for {} countries.", versions.size(), loaded.size());
+    }
+
+    /**
+     * All versions, after adding an epoch version for every country that has a cost but no version yet.
+     */
+    private List<ClearingCostVersion> backfill() {
+        List<ClearingCostVersion> versions = new ArrayList<>(versionRepository.findAllByOrderByValidFromAscIdAsc());
+        Set<String> versioned = versions.stream().map(ClearingCostVersion::getCountryCode).collect(Collectors.toSet());
+        Map<String, Double> unversioned = new LinkedHashMap<>();
+        clearingCostRepository.findAllCosts().forEach((countryCode, cost) -> {
+            if (!versioned.contains(countryCode)) {
+                unversioned.put(countryCode, cost);
+            }
+        });
+        if (!unversioned.isEmpty()) {
+            clearingCostRepository.insertVersions(unversioned, Instant.EPOCH);
+            unversioned.forEach((countryCode, cost) ->
+                    versions.add(0, new ClearingCostVersion(countryCode, cost, Instant.EPOCH)));
+        }
+        return versions;
+    }
+
+    /**
+     * Cost of {@code countryCode} in force at {@code asOf}, or {@code defaultCost} if the country had none.
+     */
+    public double cost(String countryCode, Instant asOf, double defaultCost) {
+        int slot = ClearingCostTable.slot(countryCode);
+        Timeline timeline = slot >= 0 ? timelines[slot] : null;
+        if (timeline == null) {
+            return defaultCost;
+        }
+        double cost = timeline.costAt(asOf.toEpochMilli());
+        return Double.isNaN(cost) ? defaultCost : cost;
+    }
+
+    /**
+     * Records {@code cost} (null for a deletion) as in force from now, within the current transaction. The
+     * timelines are updated once it commits.
+     */
+    public void record(String countryCode, Double cost) {
+        Map<String, Double> costs = new HashMap<>();
+        costs.put(countryCode, cost);
+        recordAll(costs);
+    }
+
+    /**
+     * Must be called after the clearing cost revision was incremented, so the revision row lock orders
+     * concurrent writers and their versions start in commit order.
+     */
+    public void recordAll(Map<String, Double> costs) {
+        if (!costs.isEmpty()) {
+            Instant validFrom = clock.instant();
+            clearingCostRepository.insertVersions(costs, validFrom);
+            ClearingCostTable.afterCommit(() -> publish(costs, validFrom.toEpochMilli()));
+        }
+    }
+
+    private void publish(Map<String, Double> costs, long validFrom) {
+        publishLock.lock();
+        try {
+            Timeline[] next = timelines.clone();
+            costs.forEach((countryCode, cost) -> {
+                int slot = ClearingCostTable.slot(countryCode);
+                if (slot >= 0) {
+                    next[slot] = Timeline.with(next[slot], validFrom, cost);
+                }
+            });
+            timelines = next;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Versions of one country: {@code costs[i]} applies from {@code validFrom[i]} (epoch millis) until
+     * {@code validFrom[i + 1]}; NaN means no cost.
+     */
+    private record Timeline(long[] validFrom, double[] costs) {
+
+        double costAt(long instant) {
+            int i = Arrays.binarySearch(validFrom, instant);
+            if (i < 0) {
+                i = -i - 2;
+            }
+            return i >= 0 ? costs[i] : Double.NaN;
+        }
+
+        static Timeline with(Timeline timeline, long from, Double cost) {
+            double value = cost != null ? cost : Double.NaN;
+            if (timeline == null) {
+                return new Timeline(new long[]{from}, new double[]{value});
+            }
+            int i = Arrays.binarySearch(timeline.validFrom, from);
+            if (i >= 0) {
+                double[] costs = timeline.costs.clone();
+                costs[i] = value;
+                return new Timeline(timeline.validFrom, costs);
+            }
+            int insertAt = -i - 1;
+            int length = timeline.validFrom.length;
+            long[] validFrom = new long[length + 1];
+            double[] costs = new double[length + 1];
+            System.arraycopy(timeline.validFrom, 0, validFrom, 0, insertAt);
+            System.arraycopy(timeline.costs, 0, costs, 0, insertAt);
+            validFrom[insertAt] = from;
+            costs[insertAt] = value;
+            System.arraycopy(timeline.validFrom, insertAt, validFrom, insertAt + 1, length - insertAt);
+            System.arraycopy(timeline.costs, insertAt, costs, insertAt + 1, length - insertAt);
+            return new Timeline(validFrom, costs);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.api.cardcost.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the in-memory clearing costs, rules and history in step with writes made by other instances. Local
+ * writes publish their own changes after commit; this polls the clearing cost revision and reloads all three
+ * from the primary whenever it moved since the last reload. The revision is read before the rows, so a write
+ * racing a reload only delays its publication until the next poll.
+ */
+@Slf4j
+@Component
+public class ClearingCostReloader {
+
+    private final ClearingCostRevisions clearingCostRevisions;
+    private final ClearingCostTable clearingCostTable;
+    private final ClearingCostRules clearingCostRules;
+    private final ClearingCostHistory clearingCostHistory;
+
+    private long loadedRevision = -1;
+
+    public ClearingCostReloader(ClearingCostRevisions clearingCostRevisions, ClearingCostTable clearingCostTable,
+                                ClearingCostRules clearingCostRules, ClearingCostHistory clearingCostHistory) {
+        this.clearingCostRevisions = clearingCostRevisions;
+        this.clearingCostTable = clearingCostTable;
+        this.clearingCostRules = clearingCostRules;
+        this.clearingCostHistory = clearingCostHistory;
+    }
+
+    @Scheduled(initialDelayString = "${cardcost.clearing-costs.reload-interval-ms:5000}",
+            fixedDelayString = "${cardcost.clearing-costs.reload-interval-ms:5000}")
+    public synchronized void reloadIfChanged() {
+        long revision = clearingCostRevisions.current().number();
+        if (revision != loadedRevision) {
+            log.debug("Clearing cost revision moved from {} to {}, reloading.", loadedRevision, revision);
+            clearingCostTable.reload();
+            clearingCostRules.reload();
+            clearingCostHistory.reload();
+            loadedRevision = revision;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.ClearingCostRevision;
+import com.api.cardcost.repositories.ClearingCostRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Revision of the clearing costs, stored in the database. Every create, update, delete and import increments
+ * it in its own transaction, so all instances agree on it, and it is read before the rows it describes: rows
+ * read afterwards are at least as new as the revision, never older.
+ */
+@Component
+public class ClearingCostRevisions implements SmartInitializingSingleton {
+
+    private final ClearingCostRepository clearingCostRepository;
+
+    public ClearingCostRevisions(ClearingCostRepository clearingCostRepository) {
+        this.clearingCostRepository = clearingCostRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        clearingCostRepository.insertRevisionIfMissing(System.currentTimeMillis());
+    }
+
+    /**
+     * Adds {@code changes} to the revision within the current transaction and returns the new revision.
+     */
+    public long increment(int changes) {
+        return clearingCostRepository.incrementRevision(changes);
+    }
+
+    /**
+     * The committed revision, from the primary outside a transaction and from the transaction's data source
+     * inside one.
+     */
+    public Revision current() {
+        ClearingCostRevision revision = clearingCostRepository.findRevision();
+        return new Revision(revision.getEpoch(), revision.getRevision());
+    }
+
+    public record Revision(long epoch, long number) {
+
+        public String eTag() {
+            return Long.toHexString(epoch) + "-" + number;
+        }
+    }
+
+    /**
+     * A value read at {@code revision}.
+     */
+    public record Revisioned<T>(Revision revision, T value) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.ClearingCostRule;
+import com.api.cardcost.repositories.ClearingCostRuleRepository;
+import com.api.cardcost.services.bin.CardAttributes;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Clearing cost rules compiled into a decision table. Every country named by a rule gets its own row of
+ * {@link CardAttributes#COUNT} costs, one per attribute combination, resolved from that country's rules
+ * plus the rules for any country; all other countries share the row of the latter. A lookup is a country
+ * slot probe and a row probe, and the whole table is rebuilt from the committed rules whenever they change.
+ */
+@Slf4j
+@Component
+public class ClearingCostRules implements SmartInitializingSingleton {
+
+    private static final int SLOTS = 1 << 14;
+    private static final Comparator<ClearingCostRule> PRECEDENCE = Comparator
+            .comparing(ClearingCostRule::getPriority, Comparator.reverseOrder())
+            .thenComparing(ClearingCostRules::specificity, Comparator.reverseOrder())
+            .thenComparing(ClearingCostRule::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final ClearingCostRuleRepository clearingCostRuleRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private volatile DecisionTable table = compile(List.of());
+
+    public ClearingCostRules(ClearingCostRuleRepository clearingCostRuleRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.clearingCostRuleRepository = clearingCostRuleRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<ClearingCostRule> rules = clearingCostRuleRepository.findAll();
+        load(rules);
+        log.info("Compiled {} clearing cost rules.", rules.size());
+    }
+
+    /**
+     * Cost of the best rule matching the country and the packed {@link CardAttributes}, NaN if none does.
+     */
+    public double cost(String countryCode, int attributes) {
+        int slot = ClearingCostTable.slot(countryCode);
+        DecisionTable current = table;
+        double[] row = current.rows[slot >= 0 ? current.countryRows[slot] : 0];
+        return CardAttributes.isValid(attributes) ? row[attributes] : row[CardAttributes.UNKNOWN];
+    }
+
+    /**
+     * Rebuilds the table once the current transaction commits. Reloads run one at a time, each in a new
+     * read-write transaction, so they read the primary and not a lagging replica. The last reload to publish
+     * has therefore read every rule committed before it started, and concurrent rule writes cannot drop each
+     * other's changes.
+     */
+    public void update() {
+        ClearingCostTable.afterCommit(this::reload);
+    }
+
+    /**
+     * Rebuilds the table from the committed rules, for writes made by other instances.
+     */
+    public void reload() {
+        reloadLock.lock();
+        try {
+            load(transactionTemplate.execute(status -> clearingCostRuleRepository.findAll()));
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    void load(List<ClearingCostRule> rules) {
+        table = compile(rules);
+    }
+
+    static DecisionTable compile(List<ClearingCostRule> rules) {
+        List<ClearingCostRule> anyCountry = new ArrayList<>();
+        Map<String, List<ClearingCostRule>> byCountry = new LinkedHashMap<>();
+        for (ClearingCostRule rule : rules) {
+            if (rule.getCountryCode() == null) {
+                anyCountry.add(rule);
+            } else if (ClearingCostTable.slot(rule.getCountryCode()) >= 0) {
+                byCountry.computeIfAbsent(rule.getCountryCode(), countryCode -> new ArrayList<>()).add(rule);
+            }
+        }
+
+        short[] countryRows = new short[SLOTS];
+        double[][] rows = new double[byCountry.size() + 1][];
+        rows[0] = row(anyCountry);
+        int next = 1;
+        for (Map.Entry<String, List<ClearingCostRule>> country : byCountry.entrySet()) {
+            country.getValue().addAll(anyCountry);
+            rows[next] = row(country.getValue());
+            countryRows[ClearingCostTable.slot(country.getKey())] = (short) next++;
+        }
+        return new DecisionTable(countryRows, rows);
+    }
+
+    private static double[] row(List<ClearingCostRule> rules) {
+        List<ClearingCostRule> ordered = new ArrayList<>(rules);
+        ordered.sort(PRECEDENCE);
+        double[] row = new double[CardAttributes.COUNT];
+        Arrays.fill(row, Double.NaN);
+        for (int attributes = 0; attributes < row.length; attributes++) {
+            for (ClearingCostRule rule : ordered) {
+                if (matches(rule, attributes)) {
+                    row[attributes] = rule.getCost();
+                    break;
+                }
+            }
+        }
+        return row;
+    }
+
+    private static boolean matches(ClearingCostRule rule, int attributes) {
+        return (rule.getScheme() == null || rule.getScheme().equals(CardAttributes.scheme(attributes).name()))
+                && (rule.getCardType() == null || rule.getCardType().equals(CardAttributes.type(attributes).name()))
+                && (rule.getPrepaid() == null || rule.getPrepaid().equals(CardAttributes.prepaid(attributes)));
+    }
+
+    private static int specificity(ClearingCostRule rule) {
+        int specificity = 0;
+        for (Object attribute : new Object[]{rule.getCountryCode(), rule.getScheme(), rule.getCardType(),
+                rule.getPrepaid()}) {
+            if (attribute != null) {
+                specificity++;
+            }
+        }
+        return specificity;
+    }
+
+    /**
+     * {@code countryRows[slot]} is the row of a country, 0 being the row shared by countries without rules.
+     */
+    record DecisionTable(short[] countryRows, double[][] rows) {
+    }
+}
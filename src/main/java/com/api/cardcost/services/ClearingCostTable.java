@@ -0,0 +1,147 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.ClearingCost;
+import com.api.cardcost.repositories.ClearingCostRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory copy of the clearing cost table, indexed by the two-letter country code packed into an
+ * int. Readers only dereference a volatile array; writers publish a modified copy once the database
+ * transaction has committed.
+ */
+@Slf4j
+@Component
+public class ClearingCostTable implements SmartInitializingSingleton {
+
+    private static final int SLOTS = 1 << 14;
+
+    private final ClearingCostRepository clearingCostRepository;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile double[] costs = emptyCosts();
+
+    public ClearingCostTable(ClearingCostRepository clearingCostRepository) {
+        this.clearingCostRepository = clearingCostRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    public void reload() {
+        List<ClearingCost> clearingCosts = clearingCostRepository.findAll();
+        double[] next = emptyCosts();
+        for (ClearingCost clearingCost : clearingCosts) {
+            int slot = slot(clearingCost.getCountryCode());
+            if (slot >= 0) {
+                next[slot] = clearingCost.getCost();
+            }
+        }
+
+        writeLock.lock();
+        try {
+            costs = next;
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Loaded {} clearing costs into memory.", clearingCosts.size());
+    }
+
+    public double cost(String countryCode, double defaultCost) {
+        int slot = slot(countryCode);
+        if (slot < 0) {
+            return defaultCost;
+        }
+        double cost = costs[slot];
+        return Double.isNaN(cost) ? defaultCost : cost;
+    }
+
+    public void put(String countryCode, double cost) {
+        int slot = slot(countryCode);
+        afterCommit(() -> publish(slot, cost));
+    }
+
+    public void remove(String countryCode) {
+        int slot = slot(countryCode);
+        afterCommit(() -> publish(slot, Double.NaN));
+    }
+
+    /**
+     * Publishes a whole import at once: {@code updated} costs are stored and {@code removed} countries dropped.
+     */
+    public void update(Map<String, Double> updated, Collection<String> removed) {
+        afterCommit(() -> {
+            writeLock.lock();
+            try {
+                double[] next = costs.clone();
+                updated.forEach((countryCode, cost) -> set(next, countryCode, cost));
+                removed.forEach(countryCode -> set(next, countryCode, Double.NaN));
+                costs = next;
+            } finally {
+                writeLock.unlock();
+            }
+        });
+    }
+
+    private static void set(double[] costs, String countryCode, double cost) {
+        int slot = slot(countryCode);
+        if (slot >= 0) {
+            costs[slot] = cost;
+        }
+    }
+
+    private void publish(int slot, double cost) {
+        writeLock.lock();
+        try {
+            if (slot >= 0) {
+                double[] next = costs.clone();
+                next[slot] = cost;
+                costs = next;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    static int slot(String countryCode) {
+        if (countryCode == null || countryCode.length() != 2) {
+            return -1;
+        }
+        char first = countryCode.charAt(0);
+        char second = countryCode.charAt(1);
+        if (first >= 128 || second >= 128) {
+            return -1;
+        }
+        return first << 7 | second;
+    }
+
+    private static double[] emptyCosts() {
+        double[] empty = new double[SLOTS];
+        Arrays.fill(empty, Double.NaN);
+        return empty;
+    }
+}
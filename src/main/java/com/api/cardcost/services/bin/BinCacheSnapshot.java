@@ -0,0 +1,107 @@
+package com.api.cardcost.services.bin;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Hottest resolved BINs written on shutdown and read back by the next instance, so a fresh deploy
+ * does not send its first wave of requests to binlist. Each line is
+ * {@code bin,country,storedAtMillis,attributes} (older snapshots lack the attributes); entries keep their
+ * original age, so nothing outlives the cache TTLs because of a restart.
+ */
+@Slf4j
+@Component
+public class BinCacheSnapshot {
+
+    private final BinCountryCache binCountryCache;
+    private final String location;
+    private final int maximumEntries;
+    private final Clock clock;
+
+    @Autowired
+    public BinCacheSnapshot(BinCountryCache binCountryCache,
+                            @Value("${cardcost.warmup.bin-snapshot.location:}") String location,
+                            @Value("${cardcost.warmup.bin-snapshot.maximum-entries:10000}") int maximumEntries) {
+        this(binCountryCache, location, maximumEntries, Clock.systemUTC());
+    }
+
+    BinCacheSnapshot(BinCountryCache binCountryCache, String location, int maximumEntries, Clock clock) {
+        this.binCountryCache = binCountryCache;
+        this.location = location;
+        this.maximumEntries = maximumEntries;
+        this.clock = clock;
+    }
+
+    public int load() {
+        if (location.isBlank() || !Files.exists(Path.of(location))) {
+            return 0;
+        }
+        long now = clock.millis();
+        int loaded = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(location), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null && loaded < maximumEntries) {
+                String[] fields = line.split(",");
+                if (fields.length < 3 || fields.length > 4 || fields[1].length() != 2) {
+                    continue;
+                }
+                try {
+                    int bin = Integer.parseInt(fields[0]);
+                    long age = Math.max(0, now - Long.parseLong(fields[2]));
+                    int attributes = fields.length == 4 ? Integer.parseInt(fields[3]) : CardAttributes.UNKNOWN;
+                    binCountryCache.putFound(bin, fields[1],
+                            CardAttributes.isValid(attributes) ? attributes : CardAttributes.UNKNOWN,
+                            Duration.ofMillis(age));
+                    loaded++;
+                } catch (NumberFormatException e) {
+                    log.debug("Skipping invalid BIN snapshot line: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not read BIN snapshot {}: {}", location, e.getMessage());
+        }
+        return loaded;
+    }
+
+    @PreDestroy
+    public void save() {
+        if (location.isBlank()) {
+            return;
+        }
+        Map<Integer, BinCountryCache.Entry> hottest = binCountryCache.hottest(maximumEntries);
+        if (hottest.isEmpty()) {
+            return;
+        }
+        long now = clock.millis();
+        Path target = Path.of(location).toAbsolutePath();
+        try {
+            Path temp = Files.createTempFile(target.getParent(), "bin-snapshot", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<Integer, BinCountryCache.Entry> entry : hottest.entrySet()) {
+                    long storedAt = now - binCountryCache.age(entry.getValue()).toMillis();
+                    writer.write(entry.getKey() + "," + entry.getValue().countryCode() + "," + storedAt + ","
+                            + entry.getValue().attributes());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Saved {} hot BINs to {}.", hottest.size(), target);
+        } catch (IOException e) {
+            log.warn("Could not write BIN snapshot {}: {}", target, e.getMessage());
+        }
+    }
+}
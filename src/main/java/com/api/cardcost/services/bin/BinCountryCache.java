@@ -0,0 +1,152 @@
+package com.api.cardcost.services.bin;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded BIN to country cache with W-TinyLFU eviction. Resolved countries are fresh for
+ * {@code ttl}, "not found" answers for the shorter {@code negativeTtl}. Resolved countries are kept
+ * for a further {@code staleTtl} so they can still be served, flagged as stale, while binlist is
+ * unavailable.
+ */
+@Component
+public class BinCountryCache {
+
+    private final Cache<Integer, Entry> cache;
+    private final Ticker ticker;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public BinCountryCache(@Value("${cardcost.bin-cache.maximum-size:100000}") long maximumSize,
+                           @Value("${cardcost.bin-cache.ttl:24h}") Duration ttl,
+                           @Value("${cardcost.bin-cache.negative-ttl:10m}") Duration negativeTtl,
+                           @Value("${cardcost.bin-cache.stale-ttl:7d}") Duration staleTtl) {
+        this(maximumSize, ttl, negativeTtl, staleTtl, Ticker.systemTicker());
+    }
+
+    BinCountryCache(long maximumSize, Duration ttl, Duration negativeTtl, Duration staleTtl, Ticker ticker) {
+        long retainNanos = ttl.plus(staleTtl).toNanos();
+        long negativeTtlNanos = negativeTtl.toNanos();
+        this.ticker = ticker;
+        this.ttlNanos = ttl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<Integer, Entry>() {
+                    @Override
+                    public long expireAfterCreate(Integer bin, Entry entry, long currentTime) {
+                        return entry.found() ? Math.max(0, retainNanos - (currentTime - entry.storedAt())) : negativeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Integer bin, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(bin, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Integer bin, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    public Entry get(int bin) {
+        Entry entry = cache.getIfPresent(bin);
+        if (entry != null && isFresh(entry)) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public Entry peek(int bin) {
+        Entry entry = cache.policy().getIfPresentQuietly(bin);
+        return entry != null && isFresh(entry) ? entry : null;
+    }
+
+    public Entry getStale(int bin) {
+        Entry entry = cache.policy().getIfPresentQuietly(bin);
+        return entry != null && entry.found() ? entry : null;
+    }
+
+    public void putFound(int bin, String countryCode) {
+        putFound(bin, countryCode, CardAttributes.UNKNOWN);
+    }
+
+    public void putFound(int bin, String countryCode, int attributes) {
+        cache.put(bin, new Entry(countryCode, attributes, ticker.read()));
+    }
+
+    /**
+     * Restores a country resolved {@code age} ago, e.g. from a snapshot written by a previous instance.
+     */
+    public void putFound(int bin, String countryCode, int attributes, Duration age) {
+        cache.put(bin, new Entry(countryCode, attributes, ticker.read() - age.toNanos()));
+    }
+
+    public void putNotFound(int bin) {
+        cache.put(bin, new Entry(null, CardAttributes.UNKNOWN, ticker.read()));
+    }
+
+    /**
+     * Resolved countries the eviction policy ranks as most likely to be requested again, hottest first.
+     */
+    public Map<Integer, Entry> hottest(int limit) {
+        Map<Integer, Entry> hottest = new LinkedHashMap<>();
+        cache.policy().eviction().ifPresent(eviction -> eviction.hottest(limit).forEach((bin, entry) -> {
+            if (entry.found()) {
+                hottest.put(bin, entry);
+            }
+        }));
+        return hottest;
+    }
+
+    public Duration age(Entry entry) {
+        return Duration.ofNanos(ticker.read() - entry.storedAt());
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    private boolean isFresh(Entry entry) {
+        return !entry.found() || ticker.read() - entry.storedAt() < ttlNanos;
+    }
+
+    /**
+     * Cached answer; {@code attributes} are the packed {@link CardAttributes} of the BIN.
+     */
+    public record Entry(String countryCode, int attributes, long storedAt) {
+
+        public boolean found() {
+            return countryCode != null;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.api.cardcost.services.bin;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only log of BINs resolved by the remote providers, so the knowledge survives restarts.
+ * <p>
+ * Records are {@value #RECORD_BYTES} bytes: the BIN as an int, the two ASCII letters of the country, the
+ * packed {@link CardAttributes} as a short and the resolution time in epoch millis. At startup the file is
+ * memory-mapped and replayed into {@link BinCountryCache} (later records win). The log is rewritten with
+ * only the latest, unexpired record per BIN once it has grown past {@code compactionRatio} times its size
+ * after the last compaction.
+ * <p>
+ * {@link #append} only queues the record: a single writer thread, started on the first append, writes the
+ * queued records in batches, so the lookup threads never wait for the disk. When the queue is full the
+ * record is dropped; the BIN is still cached and is only missing from the log after a restart.
+ */
+@Slf4j
+@Component
+public class BinCountryStore {
+
+    static final int RECORD_BYTES = 16;
+    private static final int MIN_COMPACTION_RECORDS = 1024;
+    private static final int QUEUE_CAPACITY = 65_536;
+    private static final int WRITE_BATCH = 1024;
+    private static final long FLUSH_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final Pending STOP = new Pending(0, (byte) 0, (byte) 0, 0, 0);
+
+    private final BinCountryCache binCountryCache;
+    private final Path location;
+    private final long retentionMillis;
+    private final double compactionRatio;
+    private final Clock clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final BlockingQueue<Pending> pending = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong queuedRecords = new AtomicLong();
+    private final ByteBuffer batch = ByteBuffer.allocate(RECORD_BYTES * WRITE_BATCH);
+
+    private FileChannel channel;
+    private volatile long records;
+    private long compactedRecords;
+    private long writtenRecords;
+    private volatile Thread writer;
+    private volatile boolean closed;
+
+    @Autowired
+    public BinCountryStore(BinCountryCache binCountryCache,
+                           @Value("${cardcost.bin-store.location:}") String location,
+                           @Value("${cardcost.bin-cache.ttl:24h}") Duration ttl,
+                           @Value("${cardcost.bin-cache.stale-ttl:7d}") Duration staleTtl,
+                           @Value("${cardcost.bin-store.compaction-ratio:2.0}") double compactionRatio) {
+        this(binCountryCache, location, ttl.plus(staleTtl), compactionRatio, Clock.systemUTC());
+    }
+
+    BinCountryStore(BinCountryCache binCountryCache, String location, Duration retention, double compactionRatio,
+                    Clock clock) {
+        this.binCountryCache = binCountryCache;
+        this.location = location.isBlank() ? null : Path.of(location).toAbsolutePath();
+        this.retentionMillis = retention.toMillis();
+        this.compactionRatio = compactionRatio;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (location == null || !Files.exists(location)) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<Integer, Resolution> latest = replay();
+        long now = clock.millis();
+        latest.forEach((bin, resolution) -> binCountryCache.putFound(bin, resolution.countryCode().intern(),
+                resolution.attributes(), Duration.ofMillis(now - resolution.resolvedAt())));
+        log.info("Loaded {} BINs from {} ({} records) in {} ms.", latest.size(), location, records,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Queues a record for the writer thread and returns at once.
+     */
+    public void append(int bin, String countryCode, int attributes) {
+        if (location == null || closed || countryCode == null || countryCode.length() != 2) {
+            return;
+        }
+        startWriter();
+        if (pending.offer(new Pending(bin, (byte) countryCode.charAt(0), (byte) countryCode.charAt(1), attributes,
+                clock.millis()))) {
+            queuedRecords.incrementAndGet();
+        } else {
+            log.debug("BIN store queue full, not logging BIN {}.", bin);
+        }
+    }
+
+    /**
+     * Waits, for a few seconds at most, until the records queued so far are written.
+     */
+    void flush() {
+        long target = queuedRecords.get();
+        long nanos = FLUSH_TIMEOUT_NANOS;
+        lock.lock();
+        try {
+            while (writtenRecords < target && nanos > 0) {
+                nanos = written.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${cardcost.bin-store.compaction-interval-ms:600000}",
+            fixedDelayString = "${cardcost.bin-store.compaction-interval-ms:600000}")
+    public void compactIfNeeded() {
+        if (records >= MIN_COMPACTION_RECORDS && records > compactedRecords * compactionRatio) {
+            compact();
+        }
+    }
+
+    public void compact() {
+        if (location == null || !Files.exists(location)) {
+            return;
+        }
+        lock.lock();
+        try {
+            long before = records;
+            Map<Integer, Resolution> latest = replay();
+            Path temp = Files.createTempFile(location.getParent(), "bin-store", ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 4096);
+                for (Map.Entry<Integer, Resolution> entry : latest.entrySet()) {
+                    if (!buffer.hasRemaining()) {
+                        buffer.flip();
+                        writeFully(out, buffer);
+                        buffer.clear();
+                    }
+                    Resolution resolution = entry.getValue();
+                    String country = resolution.countryCode();
+                    buffer.putInt(entry.getKey()).put((byte) country.charAt(0)).put((byte) country.charAt(1))
+                            .putShort((short) resolution.attributes()).putLong(resolution.resolvedAt());
+                }
+                buffer.flip();
+                writeFully(out, buffer);
+                out.force(true);
+            }
+            closeChannel();
+            Files.move(temp, location, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            records = latest.size();
+            compactedRecords = records;
+            log.info("Compacted {} from {} to {} records.", location, before, records);
+        } catch (IOException e) {
+            log.warn("Could not compact {}: {}", location, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the queued records, stops the writer and syncs the file.
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        Thread current = writer;
+        if (current != null) {
+            try {
+                pending.put(STOP);
+                current.join(TimeUnit.NANOSECONDS.toMillis(FLUSH_TIMEOUT_NANOS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        lock.lock();
+        try {
+            if (channel != null) {
+                channel.force(false);
+            }
+            closeChannel();
+        } catch (IOException e) {
+            log.warn("Could not flush {}: {}", location, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long records() {
+        return records;
+    }
+
+    /**
+     * Latest unexpired record per BIN. Truncated trailing records (a crash mid-append) and records with an
+     * invalid country are skipped; unreadable attributes are treated as unknown.
+     */
+    private Map<Integer, Resolution> replay() {
+        Map<Integer, Resolution> latest = new HashMap<>();
+        long oldest = clock.millis() - retentionMillis;
+        long count = 0;
+        try (FileChannel in = FileChannel.open(location, StandardOpenOption.READ)) {
+            long size = in.size() - in.size() % RECORD_BYTES;
+            MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            while (buffer.remaining() >= RECORD_BYTES) {
+                int bin = buffer.getInt();
+                byte first = buffer.get();
+                byte second = buffer.get();
+                int attributes = buffer.getShort();
+                long resolvedAt = buffer.getLong();
+                count++;
+                if (!isLetter(first) || !isLetter(second)) {
+                    continue;
+                }
+                if (resolvedAt < oldest) {
+                    latest.remove(bin);
+                } else {
+                    latest.put(bin, new Resolution(new String(new char[]{(char) first, (char) second}),
+                            CardAttributes.isValid(attributes) ? attributes : CardAttributes.UNKNOWN, resolvedAt));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not read {}: {}", location, e.getMessage());
+        }
+        records = count;
+        if (compactedRecords == 0) {
+            compactedRecords = latest.size();
+        }
+        return latest;
+    }
+
+    private void startWriter() {
+        if (writer == null) {
+            lock.lock();
+            try {
+                if (writer == null) {
+                    writer = Thread.ofPlatform().daemon().name("bin-store-writer").start(this::writeQueued);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void writeQueued() {
+        List<Pending> queued = new ArrayList<>(WRITE_BATCH);
+        boolean stopped = false;
+        try {
+            while (!stopped) {
+                queued.add(pending.take());
+                pending.drainTo(queued, WRITE_BATCH - 1);
+                stopped = queued.removeIf(record -> record == STOP);
+                write(queued);
+                queued.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<Pending> queued) {
+        lock.lock();
+        try {
+            batch.clear();
+            for (Pending record : queued) {
+                batch.putInt(record.bin()).put(record.first()).put(record.second())
+                        .putShort((short) record.attributes()).putLong(record.resolvedAt());
+            }
+            batch.flip();
+            writeFully(openChannel(), batch);
+            records += queued.size();
+        } catch (IOException e) {
+            log.warn("Could not append {} BINs to {}: {}", queued.size(), location, e.getMessage());
+        } finally {
+            writtenRecords += queued.size();
+            written.signalAll();
+            lock.unlock();
+        }
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(location, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            long size = channel.size();
+            if (size % RECORD_BYTES != 0) {
+                channel.truncate(size - size % RECORD_BYTES);
+            }
+        }
+        return channel;
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static boolean isLetter(byte b) {
+        return b >= 'A' && b <= 'Z';
+    }
+
+    private record Resolution(String countryCode, int attributes, long resolvedAt) {
+    }
+
+    private record Pending(int bin, byte first, byte second, int attributes, long resolvedAt) {
+    }
+}
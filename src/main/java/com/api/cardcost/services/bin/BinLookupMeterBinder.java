@@ -0,0 +1,83 @@
+package com.api.cardcost.services.bin;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the BIN lookup tiers (local index, cache, shared cache, remote providers) as gauges and counters.
+ */
+@Component
+public class BinLookupMeterBinder implements MeterBinder {
+
+    private final BinRangeIndex binRangeIndex;
+    private final BinCountryCache binCountryCache;
+    private final BinResolver binResolver;
+    private final BinProviderChain providerChain;
+    private final SharedBinCache sharedCache;
+
+    public BinLookupMeterBinder(BinRangeIndex binRangeIndex, BinCountryCache binCountryCache,
+                                BinResolver binResolver, BinProviderChain providerChain, SharedBinCache sharedCache) {
+        this.binRangeIndex = binRangeIndex;
+        this.binCountryCache = binCountryCache;
+        this.binResolver = binResolver;
+        this.providerChain = providerChain;
+        this.sharedCache = sharedCache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("cardcost.bin.index.ranges", binRangeIndex, BinRangeIndex::size)
+                .description("BIN ranges in the local index")
+                .register(registry);
+        Gauge.builder("cardcost.bin.cache.size", binCountryCache, BinCountryCache::size)
+                .description("Entries in the BIN to country cache")
+                .register(registry);
+        FunctionCounter.builder("cardcost.bin.cache.requests", binCountryCache, BinCountryCache::hitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cardcost.bin.cache.requests", binCountryCache, BinCountryCache::missCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("cardcost.bin.cache.evictions", binCountryCache, BinCountryCache::evictionCount)
+                .register(registry);
+        FunctionCounter.builder("cardcost.bin.lookups.stale", binResolver, BinResolver::staleResponses)
+                .description("Lookups answered with an expired cache entry because every provider failed")
+                .register(registry);
+        FunctionCounter.builder("cardcost.bin.lookups.coalesced", binResolver, BinResolver::coalescedLookups)
+                .register(registry);
+        FunctionCounter.builder("cardcost.bin.lookups.hedged", providerChain, BinProviderChain::hedgedLookups)
+                .register(registry);
+        if (sharedCache.isEnabled()) {
+            FunctionCounter.builder("cardcost.bin.shared-cache.requests", sharedCache, SharedBinCache::hitCount)
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("cardcost.bin.shared-cache.requests", sharedCache, SharedBinCache::missCount)
+                    .tag("result", "miss")
+                    .register(registry);
+            FunctionCounter.builder("cardcost.bin.shared-cache.errors", sharedCache, SharedBinCache::errorCount)
+                    .description("Shared cache calls that failed, after which the tier is skipped for a while")
+                    .register(registry);
+        }
+
+        for (GuardedBinLookupProvider provider : providerChain.providers()) {
+            Gauge.builder("cardcost.bin.provider.circuit.state", provider, p -> p.circuitState().ordinal())
+                    .description("0 closed, 1 open, 2 half-open")
+                    .tag("provider", provider.name())
+                    .register(registry);
+            FunctionCounter.builder("cardcost.bin.provider.rejected", provider,
+                            GuardedBinLookupProvider::rejectedLookups)
+                    .description("Calls rejected locally by the circuit breaker or rate limiter")
+                    .tag("provider", provider.name())
+                    .register(registry);
+            if (provider.permitsPerSecond() != null) {
+                Gauge.builder("cardcost.bin.provider.permits", provider, p -> p.permitsPerSecond())
+                        .description("Current client-side permits per second")
+                        .tag("provider", provider.name())
+                        .register(registry);
+            }
+        }
+    }
+}
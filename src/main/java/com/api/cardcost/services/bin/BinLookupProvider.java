@@ -0,0 +1,16 @@
+package com.api.cardcost.services.bin;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Remote source of BIN to country answers. Implementations never throw: a found country, an unknown BIN
+ * and provider trouble are all returned as a {@link BinLookupResult}.
+ */
+public interface BinLookupProvider {
+
+    String name();
+
+    BinLookupResult lookup(int bin);
+
+    CompletableFuture<BinLookupResult> lookupAsync(int bin);
+}
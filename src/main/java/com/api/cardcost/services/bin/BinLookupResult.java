@@ -0,0 +1,74 @@
+package com.api.cardcost.services.bin;
+
+/**
+ * Outcome of a BIN lookup. Failures are ordinary values that travel through the providers, the resolver
+ * and the pricing code without throwing; the common ones are shared constants, so a throttling storm
+ * allocates nothing per rejected lookup.
+ */
+public record BinLookupResult(Status status, String countryCode, int attributes, boolean stale, String message) {
+
+    public enum Status {
+        FOUND(200), NOT_FOUND(404), THROTTLED(429), FAILED(500);
+
+        private final int httpStatus;
+
+        Status(int httpStatus) {
+            this.httpStatus = httpStatus;
+        }
+
+        public int httpStatus() {
+            return httpStatus;
+        }
+    }
+
+    public static final BinLookupResult COUNTRY_NOT_FOUND = notFound("Country not found");
+    public static final BinLookupResult TOO_MANY_REQUESTS = throttled("429 Too Many Requests");
+
+    public static BinLookupResult found(String countryCode, int attributes) {
+        return new BinLookupResult(Status.FOUND, countryCode, attributes, false, null);
+    }
+
+    public static BinLookupResult notFound(String message) {
+        return new BinLookupResult(Status.NOT_FOUND, null, CardAttributes.UNKNOWN, false, message);
+    }
+
+    public static BinLookupResult throttled(String message) {
+        return new BinLookupResult(Status.THROTTLED, null, CardAttributes.UNKNOWN, false, message);
+    }
+
+    public static BinLookupResult failed(String message) {
+        return new BinLookupResult(Status.FAILED, null, CardAttributes.UNKNOWN, false, message);
+    }
+
+    public static BinLookupResult failed(Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        return failed(cause.getMessage() != null ? cause.getMessage() : cause.toString());
+    }
+
+    /**
+     * Non-200 answer of a remote provider: 404 means unknown BIN, 429 throttling, anything else a failure.
+     */
+    public static BinLookupResult ofHttpStatus(int status, String message) {
+        if (status == 404) {
+            return notFound(message);
+        } else if (status == 429) {
+            return "429 Too Many Requests".equals(message) ? TOO_MANY_REQUESTS : throttled(message);
+        }
+        return failed(message);
+    }
+
+    public boolean isFound() {
+        return status == Status.FOUND;
+    }
+
+    /**
+     * Throttled or failed: worth asking the next provider and not worth caching.
+     */
+    public boolean isFailure() {
+        return status == Status.THROTTLED || status == Status.FAILED;
+    }
+
+    public BinLookupResult asStale() {
+        return new BinLookupResult(status, countryCode, attributes, true, message);
+    }
+}
@@ -0,0 +1,112 @@
+package com.api.cardcost.services.bin;
+
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ordered list of remote BIN providers. A provider that is throttled or fails hands the lookup to the
+ * next one. With hedging enabled, the rest of the chain is also started when the primary has not
+ * answered within its own p95 latency, and whichever side answers first wins.
+ */
+public class BinProviderChain implements BinLookupProvider {
+
+    private final List<GuardedBinLookupProvider> providers;
+    private final boolean hedging;
+    private final long initialHedgeDelayNanos;
+    private final LongAdder hedgedLookups = new LongAdder();
+
+    public BinProviderChain(List<GuardedBinLookupProvider> providers, boolean hedging, Duration initialHedgeDelay) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("At least one BIN provider is required.");
+        }
+        this.providers = List.copyOf(providers);
+        this.hedging = hedging && providers.size() > 1;
+        this.initialHedgeDelayNanos = initialHedgeDelay.toNanos();
+    }
+
+    @Override
+    public String name() {
+        return providers.get(0).name();
+    }
+
+    @Override
+    public BinLookupResult lookup(int bin) {
+        if (hedging) {
+            return lookupAsync(bin).join();
+        }
+        BinLookupResult result = null;
+        for (GuardedBinLookupProvider provider : providers) {
+            result = provider.lookup(bin);
+            if (!result.isFailure()) {
+                return result;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<BinLookupResult> lookupAsync(int bin) {
+        return hedging ? hedged(bin) : fallThrough(0, bin);
+    }
+
+    public List<GuardedBinLookupProvider> providers() {
+        return providers;
+    }
+
+    public long hedgedLookups() {
+        return hedgedLookups.sum();
+    }
+
+    private CompletableFuture<BinLookupResult> fallThrough(int index, int bin) {
+        return providers.get(index).lookupAsync(bin).thenCompose(response ->
+                response.isFailure() && index + 1 < providers.size()
+                        ? fallThrough(index + 1, bin)
+                        : CompletableFuture.completedFuture(response));
+    }
+
+    private CompletableFuture<BinLookupResult> hedged(int bin) {
+        CompletableFuture<BinLookupResult> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<BinLookupResult>> backup = new AtomicReference<>();
+        CompletableFuture<BinLookupResult> primary = providers.get(0).lookupAsync(bin);
+
+        primary.thenAccept(response -> {
+            if (response.isFailure()) {
+                startBackup(backup, bin).thenAccept(result::complete);
+            } else {
+                result.complete(response);
+            }
+        });
+        if (!primary.isDone()) {
+            CompletableFuture.delayedExecutor(hedgeDelayNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+                if (!primary.isDone()) {
+                    hedgedLookups.increment();
+                    startBackup(backup, bin).thenAccept(response -> {
+                        if (!response.isFailure()) {
+                            result.complete(response);
+                        }
+                    });
+                }
+            });
+        }
+        return result;
+    }
+
+    private CompletableFuture<BinLookupResult> startBackup(
+            AtomicReference<CompletableFuture<BinLookupResult>> backup, int bin) {
+        CompletableFuture<BinLookupResult> started = new CompletableFuture<>();
+        if (backup.compareAndSet(null, started)) {
+            fallThrough(1, bin).thenAccept(started::complete);
+        }
+        return backup.get();
+    }
+
+    private long hedgeDelayNanos() {
+        long p95 = providers.get(0).p95Nanos();
+        return p95 > 0 ? p95 : initialHedgeDelayNanos;
+    }
+}
@@ -0,0 +1,187 @@
+package com.api.cardcost.services.bin;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-process BIN range to ISO alpha-2 index loaded from a local CSV file.
+ * <p>
+ * Each line is {@code start,end,country} where start and end are 6 or 8 digit BINs. Ranges are
+ * normalized to 8 digits and flattened into disjoint segments (narrower ranges win over the wider
+ * ranges they are nested in), so a lookup is a single binary search over primitive arrays.
+ */
+@Slf4j
+@Component
+public class BinRangeIndex {
+
+    private final Resource location;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile long loadedModified = Long.MIN_VALUE;
+
+    public BinRangeIndex(@Value("${cardcost.bin-index.location:classpath:bin-ranges.csv}") Resource location) {
+        this.location = location;
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    @Scheduled(initialDelayString = "${cardcost.bin-index.reload-interval-ms:30000}",
+            fixedDelayString = "${cardcost.bin-index.reload-interval-ms:30000}")
+    public void reloadIfModified() {
+        if (lastModified() != loadedModified) {
+            reload();
+        }
+    }
+
+    public synchronized void reload() {
+        long modified = lastModified();
+        if (!location.exists()) {
+            log.warn("BIN range file {} not found, local index left with {} ranges.", location, size());
+            loadedModified = modified;
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(location.getInputStream(), StandardCharsets.UTF_8))) {
+            snapshot = Snapshot.of(parse(reader));
+            loadedModified = modified;
+            log.info("Loaded {} BIN ranges from {}.", size(), location);
+        } catch (IOException e) {
+            log.error("Could not load BIN range file {}: {}", location, e.getMessage());
+        }
+    }
+
+    public String lookup(int bin) {
+        Snapshot current = snapshot;
+        int i = Arrays.binarySearch(current.starts, bin);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        if (i >= 0 && bin <= current.ends[i]) {
+            return current.countries[i];
+        }
+        return null;
+    }
+
+    public int size() {
+        return snapshot.starts.length;
+    }
+
+    private long lastModified() {
+        try {
+            return location.exists() ? location.lastModified() : -1;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private List<Range> parse(BufferedReader reader) throws IOException {
+        List<Range> ranges = new ArrayList<>();
+        Map<String, String> countries = new HashMap<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            int start = fields.length == 3 ? normalize(fields[0].trim(), false) : -1;
+            int end = fields.length == 3 ? normalize(fields[1].trim(), true) : -1;
+            String country = fields.length == 3 ? fields[2].trim().toUpperCase(Locale.ROOT) : "";
+            if (start < 0 || end < start || country.length() != 2) {
+                log.warn("Skipping invalid BIN range at line {}: {}", lineNumber, line);
+                continue;
+            }
+            ranges.add(new Range(start, end, countries.computeIfAbsent(country, c -> c)));
+        }
+        return ranges;
+    }
+
+    private static int normalize(String bin, boolean upperBound) {
+        if (!bin.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+        return switch (bin.length()) {
+            case 6 -> Integer.parseInt(bin) * 100 + (upperBound ? 99 : 0);
+            case CardNumbers.BIN_DIGITS -> Integer.parseInt(bin);
+            default -> -1;
+        };
+    }
+
+    private record Range(int start, int end, String country) {
+    }
+
+    private record Snapshot(int[] starts, int[] ends, String[] countries) {
+
+        static final Snapshot EMPTY = new Snapshot(new int[0], new int[0], new String[0]);
+
+        static Snapshot of(List<Range> ranges) {
+            TreeMap<Integer, Range> segments = new TreeMap<>();
+            ranges.stream()
+                    .sorted(Comparator.comparingLong((Range r) -> (long) r.start() - r.end()))
+                    .forEach(range -> paint(segments, range));
+
+            List<Range> merged = new ArrayList<>(segments.size());
+            for (Range segment : segments.values()) {
+                Range last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && last.end() + 1 == segment.start() && last.country().equals(segment.country())) {
+                    merged.set(merged.size() - 1, new Range(last.start(), segment.end(), last.country()));
+                } else {
+                    merged.add(segment);
+                }
+            }
+
+            int[] starts = new int[merged.size()];
+            int[] ends = new int[merged.size()];
+            String[] countries = new String[merged.size()];
+            for (int i = 0; i < merged.size(); i++) {
+                starts[i] = merged.get(i).start();
+                ends[i] = merged.get(i).end();
+                countries[i] = merged.get(i).country();
+            }
+            return new Snapshot(starts, ends, countries);
+        }
+
+        private static void paint(TreeMap<Integer, Range> segments, Range range) {
+            Map.Entry<Integer, Range> before = segments.lowerEntry(range.start());
+            if (before != null && before.getValue().end() >= range.start()) {
+                Range outer = before.getValue();
+                segments.put(outer.start(), new Range(outer.start(), range.start() - 1, outer.country()));
+                if (outer.end() > range.end()) {
+                    segments.put(range.end() + 1, new Range(range.end() + 1, outer.end(), outer.country()));
+                }
+            }
+
+            NavigableMap<Integer, Range> covered = segments.subMap(range.start(), true, range.end(), true);
+            Range tail = covered.isEmpty() ? null : covered.lastEntry().getValue();
+            covered.clear();
+            if (tail != null && tail.end() > range.end()) {
+                segments.put(range.end() + 1, new Range(range.end() + 1, tail.end(), tail.country()));
+            }
+            segments.put(range.start(), range);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.api.cardcost.services.bin;
+
+import com.api.cardcost.entities.dtos.BinLookupStatsDto;
+import com.api.cardcost.entities.dtos.BinProviderStatsDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resolves a BIN through the tiers in order: the local range index, the in-memory cache, the cache shared
+ * between replicas when configured, and finally the remote providers. Concurrent lookups of the same BIN
+ * share one remote call.
+ */
+@Service
+public class BinResolver {
+
+    private final BinRangeIndex binRangeIndex;
+    private final BinCountryCache binCountryCache;
+    private final BinCountryStore binCountryStore;
+    private final BinProviderChain providerChain;
+    private final SharedBinCache sharedCache;
+    private final SingleFlight<Integer, BinLookupResult> remoteLookups = new SingleFlight<>();
+    private final LongAdder staleResponses = new LongAdder();
+
+    public BinResolver(BinRangeIndex binRangeIndex, BinCountryCache binCountryCache, BinCountryStore binCountryStore,
+                       BinProviderChain providerChain, SharedBinCache sharedCache) {
+        this.binRangeIndex = binRangeIndex;
+        this.binCountryCache = binCountryCache;
+        this.binCountryStore = binCountryStore;
+        this.providerChain = providerChain;
+        this.sharedCache = sharedCache != null && sharedCache.isEnabled() ? sharedCache : null;
+    }
+
+    /**
+     * A resolver over the same range index that answers from {@code cache} only: it never reaches the live
+     * cache, the shared cache or the remote providers, and BINs missing from {@code cache} fail. Its provider
+     * metrics go to {@code meterRegistry}.
+     */
+    public BinResolver offline(BinCountryCache cache, MeterRegistry meterRegistry) {
+        BinProviderChain offlineChain = new BinProviderChain(List.of(new GuardedBinLookupProvider(
+                new OfflineProvider(), new CircuitBreaker(1, Duration.ofHours(1)), null, meterRegistry)),
+                false, Duration.ZERO);
+        return new BinResolver(binRangeIndex, cache, new BinCountryStore(cache, "", Duration.ZERO, 2.0,
+                Clock.systemUTC()), offlineChain, null);
+    }
+
+    public BinLookupResult resolve(int bin) {
+        BinLookupResult local = resolveLocally(bin);
+        return local != null ? local : remoteLookups.execute(bin, () -> fetch(bin));
+    }
+
+    public CompletableFuture<BinLookupResult> resolveAsync(int bin) {
+        BinLookupResult local = resolveLocally(bin);
+        if (local != null) {
+            return CompletableFuture.completedFuture(local);
+        }
+        return remoteLookups.executeAsync(bin, () -> fetchAsync(bin, true)).exceptionally(BinLookupResult::failed);
+    }
+
+    /**
+     * Resolves distinct BINs together: the ones missing locally are read from the shared cache in one
+     * pipelined round trip, and only what is still missing goes to the remote providers.
+     */
+    public Map<Integer, BinLookupResult> resolveAll(Collection<Integer> bins) {
+        Map<Integer, BinLookupResult> results = new HashMap<>();
+        Set<Integer> misses = new LinkedHashSet<>();
+        for (Integer bin : bins) {
+            if (!results.containsKey(bin) && !misses.contains(bin)) {
+                BinLookupResult local = resolveLocally(bin);
+                if (local != null) {
+                    results.put(bin, local);
+                } else {
+                    misses.add(bin);
+                }
+            }
+        }
+
+        Map<Integer, SharedBinCache.Entry> shared = sharedCache != null ? sharedCache.getAll(misses) : Map.of();
+        Map<Integer, CompletableFuture<BinLookupResult>> lookups = new HashMap<>();
+        for (Integer bin : misses) {
+            SharedBinCache.Entry entry = shared.get(bin);
+            if (entry != null) {
+                results.put(bin, rememberShared(bin, entry));
+            } else {
+                lookups.put(bin, remoteLookups.executeAsync(bin, () -> fetchAsync(bin, false))
+                        .exceptionally(BinLookupResult::failed));
+            }
+        }
+        lookups.forEach((bin, lookup) -> results.put(bin, lookup.join()));
+        return results;
+    }
+
+    private BinLookupResult resolveLocally(int bin) {
+        String localCountryCode = binRangeIndex.lookup(bin);
+        if (localCountryCode != null) {
+            return BinLookupResult.found(localCountryCode, CardAttributes.UNKNOWN);
+        }
+
+        BinCountryCache.Entry cached = binCountryCache.get(bin);
+        return cached != null ? toResult(cached) : null;
+    }
+
+    private BinLookupResult fetch(int bin) {
+        BinCountryCache.Entry cached = binCountryCache.peek(bin);
+        if (cached != null) {
+            return toResult(cached);
+        }
+        SharedBinCache.Entry shared = sharedCache != null ? sharedCache.get(bin) : null;
+        if (shared != null) {
+            return rememberShared(bin, shared);
+        }
+        return remember(bin, providerChain.lookup(bin));
+    }
+
+    private CompletableFuture<BinLookupResult> fetchAsync(int bin, boolean checkShared) {
+        BinCountryCache.Entry cached = binCountryCache.peek(bin);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(toResult(cached));
+        }
+        if (checkShared && sharedCache != null) {
+            return sharedCache.getAsync(bin).thenCompose(shared -> shared != null
+                    ? CompletableFuture.completedFuture(rememberShared(bin, shared))
+                    : providerChain.lookupAsync(bin).thenApply(result -> remember(bin, result)));
+        }
+        return providerChain.lookupAsync(bin).thenApply(result -> remember(bin, result));
+    }
+
+    private BinLookupResult remember(int bin, BinLookupResult result) {
+        switch (result.status()) {
+            case FOUND -> {
+                binCountryCache.putFound(bin, result.countryCode(), result.attributes());
+                binCountryStore.append(bin, result.countryCode(), result.attributes());
+            }
+            case NOT_FOUND -> binCountryCache.putNotFound(bin);
+            case THROTTLED, FAILED -> {
+                return fallback(bin, result);
+            }
+        }
+        if (sharedCache != null) {
+            sharedCache.put(bin, result);
+        }
+        return result;
+    }
+
+    private BinLookupResult rememberShared(int bin, SharedBinCache.Entry shared) {
+        if (!shared.found()) {
+            binCountryCache.putNotFound(bin);
+            return BinLookupResult.COUNTRY_NOT_FOUND;
+        }
+        Duration age = Duration.ofMillis(Math.max(0, System.currentTimeMillis() - shared.resolvedAt()));
+        binCountryCache.putFound(bin, shared.countryCode(), shared.attributes(), age);
+        return BinLookupResult.found(shared.countryCode(), shared.attributes());
+    }
+
+    private BinLookupResult fallback(int bin, BinLookupResult failure) {
+        BinCountryCache.Entry stale = binCountryCache.getStale(bin);
+        if (stale == null) {
+            return failure;
+        }
+        staleResponses.increment();
+        return toResult(stale).asStale();
+    }
+
+    private static BinLookupResult toResult(BinCountryCache.Entry cached) {
+        return cached.found()
+                ? BinLookupResult.found(cached.countryCode(), cached.attributes())
+                : BinLookupResult.COUNTRY_NOT_FOUND;
+    }
+
+    public long staleResponses() {
+        return staleResponses.sum();
+    }
+
+    public long coalescedLookups() {
+        return remoteLookups.coalescedCount();
+    }
+
+    public BinLookupStatsDto stats() {
+        long hits = binCountryCache.hitCount();
+        long misses = binCountryCache.missCount();
+        return new BinLookupStatsDto(binRangeIndex.size(), binCountryCache.size(), hits, misses,
+                binCountryCache.evictionCount(), hits + misses == 0 ? 0 : (double) hits / (hits + misses),
+                sharedCache != null ? sharedCache.hitCount() : 0, sharedCache != null ? sharedCache.missCount() : 0,
+                remoteLookups.coalescedCount(), staleResponses.sum(), providerChain.hedgedLookups(),
+                providerChain.providers().stream()
+                        .map(provider -> new BinProviderStatsDto(provider.name(), provider.circuitState().name(),
+                                provider.permitsPerSecond(), provider.rejectedLookups(),
+                                provider.p95Nanos() < 0 ? null : provider.p95Nanos() / 1_000_000.0))
+                        .toList());
+    }
+
+    /**
+     * Stands in for the remote providers of an offline resolver: every lookup fails locally.
+     */
+    private static final class OfflineProvider implements BinLookupProvider {
+
+        private static final BinLookupResult OFFLINE = BinLookupResult.failed("BIN providers are not called offline");
+
+        @Override
+        public String name() {
+            return "offline";
+        }
+
+        @Override
+        public BinLookupResult lookup(int bin) {
+            return OFFLINE;
+        }
+
+        @Override
+        public CompletableFuture<BinLookupResult> lookupAsync(int bin) {
+            return CompletableFuture.completedFuture(OFFLINE);
+        }
+    }
+}
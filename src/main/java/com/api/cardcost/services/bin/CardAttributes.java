@@ -0,0 +1,87 @@
+package com.api.cardcost.services.bin;
+
+import java.util.Locale;
+
+/**
+ * Card scheme, type and prepaid flag of a BIN packed into one small int, {@code 0} when nothing is known.
+ * Each dimension has an {@code UNKNOWN} value, so {@link #COUNT} indexes cover every combination and the
+ * packed value can be used directly as an array index.
+ */
+public final class CardAttributes {
+
+    public enum Scheme {UNKNOWN, VISA, MASTERCARD, AMEX, DISCOVER, JCB, DINERS, UNIONPAY, MAESTRO, OTHER}
+
+    public enum Type {UNKNOWN, DEBIT, CREDIT}
+
+    public static final int UNKNOWN = 0;
+    public static final int COUNT = Scheme.values().length * Type.values().length * 3;
+
+    private static final Scheme[] SCHEMES = Scheme.values();
+    private static final Type[] TYPES = Type.values();
+
+    private CardAttributes() {
+    }
+
+    public static int of(Scheme scheme, Type type, Boolean prepaid) {
+        return (scheme.ordinal() * TYPES.length + type.ordinal()) * 3 + prepaidIndex(prepaid);
+    }
+
+    /**
+     * Packs the {@code scheme}, {@code type} and {@code prepaid} fields as binlist returns them.
+     */
+    public static int parse(String scheme, String type, Boolean prepaid) {
+        return of(parseScheme(scheme), parseType(type), prepaid);
+    }
+
+    public static Scheme scheme(int attributes) {
+        return SCHEMES[attributes / 3 / TYPES.length];
+    }
+
+    public static Type type(int attributes) {
+        return TYPES[attributes / 3 % TYPES.length];
+    }
+
+    public static Boolean prepaid(int attributes) {
+        return switch (attributes % 3) {
+            case 1 -> Boolean.FALSE;
+            case 2 -> Boolean.TRUE;
+            default -> null;
+        };
+    }
+
+    public static boolean isValid(int attributes) {
+        return attributes >= 0 && attributes < COUNT;
+    }
+
+    public static Scheme parseScheme(String scheme) {
+        if (scheme == null || scheme.isBlank()) {
+            return Scheme.UNKNOWN;
+        }
+        return switch (scheme.strip().toLowerCase(Locale.ROOT)) {
+            case "visa" -> Scheme.VISA;
+            case "mastercard" -> Scheme.MASTERCARD;
+            case "amex", "american express" -> Scheme.AMEX;
+            case "discover" -> Scheme.DISCOVER;
+            case "jcb" -> Scheme.JCB;
+            case "diners", "diners club" -> Scheme.DINERS;
+            case "unionpay", "china unionpay" -> Scheme.UNIONPAY;
+            case "maestro" -> Scheme.MAESTRO;
+            default -> Scheme.OTHER;
+        };
+    }
+
+    public static Type parseType(String type) {
+        if (type == null) {
+            return Type.UNKNOWN;
+        }
+        return switch (type.strip().toLowerCase(Locale.ROOT)) {
+            case "debit" -> Type.DEBIT;
+            case "credit" -> Type.CREDIT;
+            default -> Type.UNKNOWN;
+        };
+    }
+
+    private static int prepaidIndex(Boolean prepaid) {
+        return prepaid == null ? 0 : prepaid ? 2 : 1;
+    }
+}
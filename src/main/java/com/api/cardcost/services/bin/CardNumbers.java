@@ -0,0 +1,85 @@
+package com.api.cardcost.services.bin;
+
+import com.api.cardcost.exceptions.ErrorMessages;
+
+/**
+ * Card number (PAN) parsing. {@link #parseBin} validates the digits, the length and the Luhn check
+ * digit and extracts the BIN in a single pass over the characters, without allocating.
+ */
+public final class CardNumbers {
+
+    public static final int BIN_DIGITS = 8;
+    public static final int MIN_DIGITS = 8;
+    public static final int MAX_DIGITS = 19;
+    public static final int LAST_DIGITS = 4;
+
+    public static final int MISSING = -1;
+    public static final int INVALID_LENGTH = -2;
+    public static final int NOT_DIGITS = -3;
+    public static final int INVALID_CHECK_DIGIT = -4;
+
+    private CardNumbers() {
+    }
+
+    /**
+     * Returns the 8-digit BIN of {@code cardNumber}, or one of the negative error codes of this class.
+     */
+    public static int parseBin(CharSequence cardNumber) {
+        if (cardNumber == null) {
+            return MISSING;
+        }
+        int length = cardNumber.length();
+        if (length < MIN_DIGITS || length > MAX_DIGITS) {
+            return INVALID_LENGTH;
+        }
+
+        int bin = 0;
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = cardNumber.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_DIGITS;
+            }
+            if (i < BIN_DIGITS) {
+                bin = bin * 10 + digit;
+            }
+            if (((length - i) & 1) == 0) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        return sum % 10 == 0 ? bin : INVALID_CHECK_DIGIT;
+    }
+
+    public static String errorMessage(int code) {
+        return switch (code) {
+            case MISSING -> ErrorMessages.CARD_NUMBER_MISSING;
+            case INVALID_LENGTH -> ErrorMessages.CARD_NUMBER_INVALID_LENGTH;
+            case NOT_DIGITS -> ErrorMessages.CARD_NUMBER_NOT_DIGITS;
+            case INVALID_CHECK_DIGIT -> ErrorMessages.CARD_NUMBER_INVALID_CHECK_DIGIT;
+            default -> null;
+        };
+    }
+
+    /**
+     * Returns {@code cardNumber} with only the BIN and the last 4 characters visible, as echoed back in the
+     * pricing results. Shorter inputs show at most their first half, and the last characters only once at
+     * least 4 characters are masked.
+     */
+    public static String mask(CharSequence cardNumber) {
+        if (cardNumber == null) {
+            return null;
+        }
+        int length = cardNumber.length();
+        int prefix = Math.min(BIN_DIGITS, length / 2);
+        int suffix = Math.min(LAST_DIGITS, Math.max(0, length - prefix - LAST_DIGITS));
+        char[] masked = new char[length];
+        for (int i = 0; i < length; i++) {
+            masked[i] = i < prefix || i >= length - suffix ? cardNumber.charAt(i) : '*';
+        }
+        return new String(masked);
+    }
+}
@@ -0,0 +1,136 @@
+package com.api.cardcost.services.bin;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps a remote provider with its circuit breaker, an optional client-side rate limiter and latency
+ * tracking. Rejected calls are answered locally with a shared throttled result so the chain can move on
+ * to the next provider.
+ */
+public class GuardedBinLookupProvider implements BinLookupProvider {
+
+    private static final BinLookupResult REJECTED = BinLookupResult.throttled("BIN lookups are being throttled");
+
+    private final BinLookupProvider delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final LatencyTracker latency = new LatencyTracker();
+    private final LongAdder rejectedLookups = new LongAdder();
+    private final Timer found;
+    private final Timer notFound;
+    private final Timer throttled;
+    private final Timer failed;
+
+    public GuardedBinLookupProvider(BinLookupProvider delegate, CircuitBreaker circuitBreaker,
+                                    TokenBucketRateLimiter rateLimiter, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.found = timer(registry, "found");
+        this.notFound = timer(registry, "not_found");
+        this.throttled = timer(registry, "throttled");
+        this.failed = timer(registry, "error");
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    @Override
+    public BinLookupResult lookup(int bin) {
+        if (!acquire()) {
+            return REJECTED;
+        }
+        long start = System.nanoTime();
+        return record(delegate.lookup(bin), start);
+    }
+
+    @Override
+    public CompletableFuture<BinLookupResult> lookupAsync(int bin) {
+        if (!acquire()) {
+            return CompletableFuture.completedFuture(REJECTED);
+        }
+        long start = System.nanoTime();
+        try {
+            return delegate.lookupAsync(bin)
+                    .exceptionally(BinLookupResult::failed)
+                    .thenApply(result -> record(result, start));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(record(BinLookupResult.failed(e), start));
+        }
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    public Double permitsPerSecond() {
+        return rateLimiter != null ? rateLimiter.permitsPerSecond() : null;
+    }
+
+    public long rejectedLookups() {
+        return rejectedLookups.sum();
+    }
+
+    public long p95Nanos() {
+        return latency.p95Nanos();
+    }
+
+    private boolean acquire() {
+        if (!circuitBreaker.tryAcquire()) {
+            rejectedLookups.increment();
+            return false;
+        }
+        if (rateLimiter != null && !rateLimiter.tryAcquire()) {
+            circuitBreaker.release();
+            rejectedLookups.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private BinLookupResult record(BinLookupResult result, long start) {
+        long nanos = System.nanoTime() - start;
+        latency.record(nanos);
+        timer(result).record(nanos, TimeUnit.NANOSECONDS);
+        if (result.status() == BinLookupResult.Status.THROTTLED) {
+            if (rateLimiter != null) {
+                rateLimiter.onThrottled();
+            }
+            circuitBreaker.onFailure();
+        } else if (result.status() == BinLookupResult.Status.FAILED) {
+            circuitBreaker.onFailure();
+        } else {
+            if (rateLimiter != null) {
+                rateLimiter.onSuccess();
+            }
+            circuitBreaker.onSuccess();
+        }
+        return result;
+    }
+
+    private Timer timer(BinLookupResult result) {
+        return switch (result.status()) {
+            case FOUND -> found;
+            case NOT_FOUND -> notFound;
+            case THROTTLED -> throttled;
+            case FAILED -> failed;
+        };
+    }
+
+    private Timer timer(MeterRegistry registry, String outcome) {
+        return Timer.builder("cardcost.bin.provider.requests")
+                .description("Outbound BIN provider calls")
+                .tag("provider", delegate.name())
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
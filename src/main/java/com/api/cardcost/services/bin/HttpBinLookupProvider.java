@@ -0,0 +1,105 @@
+package com.api.cardcost.services.bin;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Provider for any binlist-compatible API: {@code GET <baseUrl><bin>} answering JSON with
+ * {@code country.alpha2}. The optional {@code scheme}, {@code type} and {@code prepaid} fields are returned
+ * as {@link CardAttributes}. HTTP errors are mapped from the status code, never through exceptions.
+ */
+@Slf4j
+public class HttpBinLookupProvider implements BinLookupProvider {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String name;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    public HttpBinLookupProvider(String name, String baseUrl, Duration timeout, HttpClient httpClient) {
+        this.name = name;
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public BinLookupResult lookup(int bin) {
+        try {
+            return toResult(httpClient.send(request(bin), HttpResponse.BodyHandlers.ofByteArray()));
+        } catch (IOException e) {
+            log.error("An error occurred calling {}: {}", name, e.toString());
+            return BinLookupResult.failed(e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return BinLookupResult.failed(e.toString());
+        }
+    }
+
+    @Override
+    public CompletableFuture<BinLookupResult> lookupAsync(int bin) {
+        return httpClient.sendAsync(request(bin), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(this::toResult)
+                .exceptionally(e -> {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    log.error("An error occurred calling {}: {}", name, cause.toString());
+                    return BinLookupResult.failed(cause.toString());
+                });
+    }
+
+    private HttpRequest request(int bin) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + bin))
+                .timeout(timeout)
+                .GET()
+                .build();
+    }
+
+    private BinLookupResult toResult(HttpResponse<byte[]> response) {
+        int status = response.statusCode();
+        if (status != HttpStatus.OK.value()) {
+            if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                log.debug("{} is throttling lookups", name);
+                return BinLookupResult.TOO_MANY_REQUESTS;
+            }
+            HttpStatus resolved = HttpStatus.resolve(status);
+            String message = status + " " + (resolved != null ? resolved.getReasonPhrase() : "");
+            if (status < 500) {
+                log.error("Client error from {}: {}", name, message);
+            } else {
+                log.error("An error occurred calling {}: {}", name, message);
+            }
+            return BinLookupResult.ofHttpStatus(status, message);
+        }
+
+        try {
+            JsonNode body = MAPPER.readTree(response.body());
+            JsonNode alpha2 = body.path("country").path("alpha2");
+            if (alpha2.isTextual()) {
+                JsonNode prepaid = body.path("prepaid");
+                return BinLookupResult.found(alpha2.asText(), CardAttributes.parse(body.path("scheme").asText(null),
+                        body.path("type").asText(null), prepaid.isBoolean() ? prepaid.asBoolean() : null));
+            }
+            return BinLookupResult.COUNTRY_NOT_FOUND;
+        } catch (IOException e) {
+            log.error("An error occurred calling {}: {}", name, e.getMessage());
+            return BinLookupResult.failed(e.getMessage());
+        }
+    }
+}
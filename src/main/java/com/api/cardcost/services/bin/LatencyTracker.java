@@ -0,0 +1,43 @@
+package com.api.cardcost.services.bin;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Rolling window of the most recent call latencies. The 95th percentile is recomputed every
+ * {@code RECOMPUTE_EVERY} samples, so reading it is a single volatile load.
+ */
+public class LatencyTracker {
+
+    private static final int WINDOW = 256;
+    private static final int RECOMPUTE_EVERY = 16;
+    private static final int MIN_SAMPLES = 32;
+
+    private final long[] samples = new long[WINDOW];
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long recorded;
+    private volatile long p95Nanos = -1;
+
+    public void record(long nanos) {
+        lock.lock();
+        try {
+            samples[(int) (recorded % WINDOW)] = nanos;
+            recorded++;
+            if (recorded >= MIN_SAMPLES && recorded % RECOMPUTE_EVERY == 0) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(recorded, WINDOW));
+                Arrays.sort(sorted);
+                p95Nanos = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the 95th percentile latency, or -1 while fewer than {@code MIN_SAMPLES} calls were seen.
+     */
+    public long p95Nanos() {
+        return p95Nanos;
+    }
+}
@@ -0,0 +1,299 @@
+package com.api.cardcost.services.bin;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * BIN to country results shared by every replica, kept in Redis. It sits behind each replica's
+ * {@link BinCountryCache}, which acts as its near-cache, and in front of the remote providers, so a BIN
+ * resolved by one replica is not looked up upstream again by the others.
+ * <p>
+ * Commands go over the shared Lettuce connection of the Spring Data Redis connection factory, so host,
+ * credentials and TLS come from {@code spring.data.redis.*}. Batches are read with pipelined {@code MGET}s of
+ * up to {@value #MGET_BATCH} keys; writes are sent asynchronously and never wait for the reply. Values are
+ * {@code country,resolvedAtMillis,attributes}, or {@code -} for an unknown BIN, and expire with the local
+ * cache TTLs. The tier is optional: it is off unless enabled, and when the server cannot be reached it is
+ * skipped for {@code retryInterval} instead of slowing every lookup down.
+ */
+@Slf4j
+@Component
+public class SharedBinCache {
+
+    static final int MGET_BATCH = 256;
+    private static final String NOT_FOUND = "-";
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final String keyPrefix;
+    private final Duration timeout;
+    private final long retryNanos;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final ReentrantLock connectionLock = new ReentrantLock();
+
+    private volatile LettuceConnection connection;
+    private volatile long unavailableUntil;
+
+    @Autowired
+    public SharedBinCache(@Value("${cardcost.bin-shared-cache.enabled:false}") boolean enabled,
+                          ObjectProvider<LettuceConnectionFactory> connectionFactory,
+                          @Value("${cardcost.bin-shared-cache.key-prefix:cardcost:bin:}") String keyPrefix,
+                          @Value("${cardcost.bin-shared-cache.timeout:200ms}") Duration timeout,
+                          @Value("${cardcost.bin-shared-cache.retry-interval:5s}") Duration retryInterval,
+                          @Value("${cardcost.bin-cache.ttl:24h}") Duration ttl,
+                          @Value("${cardcost.bin-cache.negative-ttl:10m}") Duration negativeTtl) {
+        this(enabled ? connectionFactory.getIfAvailable() : null, keyPrefix, timeout, retryInterval, ttl,
+                negativeTtl);
+    }
+
+    SharedBinCache(LettuceConnectionFactory connectionFactory, String keyPrefix, Duration timeout,
+                   Duration retryInterval, Duration ttl, Duration negativeTtl) {
+        this.connectionFactory = connectionFactory;
+        this.keyPrefix = keyPrefix;
+        this.timeout = timeout;
+        this.retryNanos = retryInterval.toNanos();
+        this.ttlMillis = ttl.toMillis();
+        this.negativeTtlMillis = negativeTtl.toMillis();
+        this.unavailableUntil = System.nanoTime();
+    }
+
+    public boolean isEnabled() {
+        return connectionFactory != null;
+    }
+
+    /**
+     * Shared result for the BIN, null when the server does not have it or cannot be reached.
+     */
+    public Entry get(int bin) {
+        return getAll(List.of(bin)).get(bin);
+    }
+
+    public CompletableFuture<Entry> getAsync(int bin) {
+        if (!isAvailable()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return commands().get(key(bin)).toCompletableFuture()
+                    .orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS)
+                    .thenApply(value -> {
+                        Entry entry = value != null ? parse(decode(value)) : null;
+                        (entry != null ? hits : misses).increment();
+                        return entry;
+                    })
+                    .exceptionally(e -> {
+                        fail(e);
+                        return null;
+                    });
+        } catch (RuntimeException e) {
+            fail(e);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    public Map<Integer, Entry> getAll(Collection<Integer> bins) {
+        if (bins.isEmpty() || !isAvailable()) {
+            return Map.of();
+        }
+        List<Integer> keys = new ArrayList<>(bins);
+        Map<Integer, Entry> entries = new HashMap<>();
+        try {
+            RedisClusterAsyncCommands<byte[], byte[]> commands = commands();
+            List<RedisFuture<List<KeyValue<byte[], byte[]>>>> replies = new ArrayList<>();
+            for (int from = 0; from < keys.size(); from += MGET_BATCH) {
+                List<Integer> batch = keys.subList(from, Math.min(from + MGET_BATCH, keys.size()));
+                replies.add(commands.mget(batch.stream().map(this::key).toArray(byte[][]::new)));
+            }
+            if (!LettuceFutures.awaitAll(timeout, replies.toArray(RedisFuture[]::new))) {
+                throw new IllegalStateException("MGET timed out after " + timeout.toMillis() + " ms");
+            }
+            List<byte[]> malformed = new ArrayList<>();
+            int index = 0;
+            for (RedisFuture<List<KeyValue<byte[], byte[]>>> reply : replies) {
+                for (KeyValue<byte[], byte[]> keyValue : reply.get()) {
+                    int bin = keys.get(index++);
+                    if (keyValue.hasValue()) {
+                        Entry entry = parse(decode(keyValue.getValue()));
+                        if (entry != null) {
+                            entries.put(bin, entry);
+                        } else {
+                            malformed.add(key(bin));
+                        }
+                    }
+                }
+            }
+            if (!malformed.isEmpty()) {
+                log.warn("Dropping {} malformed shared BIN cache entries", malformed.size());
+                commands.del(malformed.toArray(byte[][]::new)).whenComplete((deleted, e) -> {
+                    if (e != null) {
+                        fail(e);
+                    }
+                });
+            }
+        } catch (ExecutionException e) {
+            fail(e.getCause());
+            return Map.of();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Map.of();
+        } catch (RuntimeException e) {
+            fail(e);
+            return Map.of();
+        }
+        hits.add(entries.size());
+        misses.add(keys.size() - entries.size());
+        return entries;
+    }
+
+    /**
+     * Shares a found or not-found result with the other replicas; failed lookups are not shared. The
+     * {@code SET} is queued without waiting for the reply, and the first writes, made before the connection is
+     * open, open it on a virtual thread, so this never blocks the calling thread.
+     */
+    public void put(int bin, BinLookupResult result) {
+        if (result.isFailure() || result.stale() || !isAvailable()) {
+            return;
+        }
+        String value = result.isFound()
+                ? result.countryCode() + "," + System.currentTimeMillis() + "," + result.attributes()
+                : NOT_FOUND;
+        long ttl = result.isFound() ? ttlMillis : negativeTtlMillis;
+        if (connection != null) {
+            set(bin, value, ttl);
+        } else {
+            Thread.ofVirtual().start(() -> set(bin, value, ttl));
+        }
+    }
+
+    private void set(int bin, String value, long ttl) {
+        try {
+            commands().set(key(bin), value.getBytes(StandardCharsets.UTF_8), SetArgs.Builder.px(ttl))
+                    .whenComplete((reply, e) -> {
+                        if (e != null) {
+                            fail(e);
+                        }
+                    });
+        } catch (RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long errorCount() {
+        return errors.sum();
+    }
+
+    @PreDestroy
+    public void close() {
+        LettuceConnection current = connection;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private boolean isAvailable() {
+        return connectionFactory != null && System.nanoTime() - unavailableUntil >= 0;
+    }
+
+    /**
+     * Commands of the shared connection, opened on first use within {@code spring.data.redis.connect-timeout}.
+     * The lock is not a monitor so that virtual threads waiting for the connection do not pin their carriers.
+     */
+    private RedisClusterAsyncCommands<byte[], byte[]> commands() {
+        LettuceConnection current = connection;
+        if (current == null) {
+            connectionLock.lock();
+            try {
+                current = connection;
+                if (current == null) {
+                    current = (LettuceConnection) connectionFactory.getConnection();
+                    connection = current;
+                }
+            } finally {
+                connectionLock.unlock();
+            }
+        }
+        return current.getNativeConnection();
+    }
+
+    private void fail(Throwable e) {
+        errors.increment();
+        if (System.nanoTime() - unavailableUntil >= 0) {
+            log.warn("Shared BIN cache unavailable, skipping it for {} ms: {}", retryNanos / 1_000_000, e.toString());
+        }
+        unavailableUntil = System.nanoTime() + retryNanos;
+    }
+
+    private byte[] key(int bin) {
+        return (keyPrefix + bin).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String decode(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The entry stored in {@code value}, or null when it is not in the expected format, for example when it was
+     * written by an incompatible version. Such values are misses and get deleted instead of failing the tier.
+     */
+    private static Entry parse(String value) {
+        if (NOT_FOUND.equals(value)) {
+            return new Entry(null, CardAttributes.UNKNOWN, 0);
+        }
+        String[] fields = value.split(",", 3);
+        if (fields.length < 2 || fields[0].isEmpty()) {
+            return null;
+        }
+        try {
+            int attributes = fields.length > 2 ? Integer.parseInt(fields[2]) : CardAttributes.UNKNOWN;
+            return new Entry(fields[0].intern(),
+                    CardAttributes.isValid(attributes) ? attributes : CardAttributes.UNKNOWN,
+                    Long.parseLong(fields[1]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A shared result: the country and attributes resolved at {@code resolvedAt} (epoch millis), or no country
+     * for a BIN the providers do not know.
+     */
+    public record Entry(String countryCode, int attributes, long resolvedAt) {
+
+        public boolean found() {
+            return countryCode != null;
+        }
+    }
+}
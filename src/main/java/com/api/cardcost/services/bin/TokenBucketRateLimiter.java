@@ -0,0 +1,83 @@
+package com.api.cardcost.services.bin;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side token bucket sized to a provider quota ({@code limit} permits per {@code period}).
+ * The refill rate adapts: it is halved whenever the provider still answers 429 and grows back by a
+ * tenth of the quota on every successful call.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final double MIN_RATE_FRACTION = 0.01;
+
+    private final double maxRate;
+    private final double minRate;
+    private final double burst;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucketRateLimiter(int limit, Duration period, int burst) {
+        this(limit, period, burst, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int limit, Duration period, int burst, LongSupplier clock) {
+        this.maxRate = (double) limit / period.toNanos();
+        this.minRate = maxRate * MIN_RATE_FRACTION;
+        this.burst = burst;
+        this.clock = clock;
+        this.rate = maxRate;
+        this.tokens = burst;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            refill();
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            rate = Math.min(maxRate, rate + maxRate / 10);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onThrottled() {
+        lock.lock();
+        try {
+            refill();
+            rate = Math.max(minRate, rate / 2);
+            tokens = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double permitsPerSecond() {
+        return rate * Duration.ofSeconds(1).toNanos();
+    }
+
+    private void refill() {
+        long now = clock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * rate);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,82 @@
+package com.api.cardcost.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:api-key-security-test",
+        "cardcost.security.api-keys.enabled=true",
+        "cardcost.security.api-keys.clients[0].name=checkout",
+        "cardcost.security.api-keys.clients[0].key-sha256=62af8704764faf8ea82fc61ce9c4c3908b6cb97d463a634e9e587d7c885db0ef"
+})
+@AutoConfigureMockMvc
+class ApiKeySecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void api_WithValidKey_IsServedWithoutSession() throws Exception {
+        MvcResult result = mockMvc.perform(get("/card-cost/bin-lookup/stats").header("X-API-Key", "test-key"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertNull(result.getRequest().getSession(false));
+        assertNull(result.getResponse().getHeader("Set-Cookie"));
+    }
+
+    @Test
+    void api_WithUnknownKey_IsUnauthorized() throws Exception {
+        mockMvc.perform(get("/card-cost/bin-lookup/stats").header("X-API-Key", "other-key"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void api_WithBasicCredentials_IsUnauthorized() throws Exception {
+        mockMvc.perform(get("/card-cost/bin-lookup/stats").with(httpBasic("admin", "admin")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void adminWrite_WithValidKey_IsUnauthorized() throws Exception {
+        mockMvc.perform(post("/card-cost/rules").header("X-API-Key", "test-key").accept(MediaType.APPLICATION_JSON)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"cost\":1.0}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void adminWrite_WithBasicCredentials_IsAllowed() throws Exception {
+        mockMvc.perform(post("/card-cost").with(httpBasic("admin", "admin"))
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"countryCode\":\"DK\",\"cost\":7.0}"))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void health_WithoutCredentials_IsStillAvailable() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void authenticate_ReturnsTheClientOfAKnownKeyOnly() {
+        ApiKeyAuthenticationFilter filter = new ApiKeyAuthenticationFilter(new ApiKeyProperties(true, "X-API-Key",
+                List.of(new ApiKeyProperties.Client("checkout", ApiKeyAuthenticationFilter.sha256("k")))));
+
+        assertEquals("checkout", filter.authenticate("k").getName());
+        assertSame(filter.authenticate("k"), filter.authenticate("k"));
+        assertNull(filter.authenticate("unknown"));
+    }
+}
@@ -0,0 +1,48 @@
+package com.api.cardcost.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinProvidersPropertiesTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ValidationAutoConfiguration.class))
+            .withUserConfiguration(PropertiesConfig.class);
+
+    @Test
+    void secondary_WithNameAndHttpUrl_IsBound() {
+        contextRunner.withPropertyValues("cardcost.bin-providers.secondaries[0].name=mirror",
+                        "cardcost.bin-providers.secondaries[0].url=https://bin-mirror.example.com/")
+                .run(context -> {
+                    assertNull(context.getStartupFailure());
+                    assertEquals("mirror", context.getBean(BinProvidersProperties.class).secondaries().get(0).name());
+                });
+    }
+
+    @Test
+    void secondary_WithoutName_FailsStartup() {
+        contextRunner.withPropertyValues("cardcost.bin-providers.secondaries[0].url=https://bin-mirror.example.com/")
+                .run(context -> assertNotNull(context.getStartupFailure()));
+    }
+
+    @Test
+    void secondary_WithInvalidUrl_FailsStartup() {
+        contextRunner.withPropertyValues("cardcost.bin-providers.secondaries[0].name=mirror",
+                        "cardcost.bin-providers.secondaries[0].url=bin-mirror.example.com")
+                .run(context -> assertNotNull(context.getStartupFailure()));
+        contextRunner.withPropertyValues("cardcost.bin-providers.secondaries[0].name=mirror",
+                        "cardcost.bin-providers.secondaries[0].url=ftp://bin-mirror.example.com/")
+                .run(context -> assertNotNull(context.getStartupFailure()));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableConfigurationProperties(BinProvidersProperties.class)
+    static class PropertiesConfig {
+    }
+}
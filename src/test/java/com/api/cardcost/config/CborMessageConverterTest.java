@@ -0,0 +1,99 @@
+package com.api.cardcost.config;
+
+import com.api.cardcost.entities.dtos.CardCostResultDto;
+import com.api.cardcost.entities.dtos.CardNumberDto;
+import com.api.cardcost.entities.dtos.ClearingCostDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cbor-message-converter-test",
+        "cardcost.warmup.enabled=false"
+})
+@AutoConfigureMockMvc
+class CborMessageConverterTest {
+
+    private final CBORMapper cborMapper = new CBORMapper();
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Test
+    void clearingCost_WithCborAccept_IsEncodedAsCbor() throws Exception {
+        mockMvc.perform(post("/card-cost").with(httpBasic("admin", "admin"))
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(new ClearingCostDto("PT", 7.5))))
+                .andExpect(status().isCreated());
+
+        byte[] cbor = mockMvc.perform(get("/card-cost/PT").with(httpBasic("admin", "admin"))
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] json = mockMvc.perform(get("/card-cost/PT").with(httpBasic("admin", "admin")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(new ClearingCostDto("PT", 7.5), cborMapper.readValue(cbor, ClearingCostDto.class));
+        assertEquals(new ClearingCostDto("PT", 7.5), jsonMapper.readValue(json, ClearingCostDto.class));
+    }
+
+    /**
+     * Encoded sizes of the messages in {@code DtoSerializationBenchmark}: CBOR saves the field name quoting,
+     * but encodes a double in 9 bytes, so a single clearing cost is no smaller than in JSON.
+     */
+    @Test
+    void pricingMessages_HaveExpectedEncodedSizes() throws Exception {
+        List<CardCostResultDto> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(new CardCostResultDto((45717360 + i) + "****0000", "US", 5.0, 200, null));
+        }
+        ObjectMapper cbor = cborConverter.getObjectMapper();
+
+        assertEquals(36, cbor.writeValueAsBytes(new CardNumberDto("4571736012345678")).length);
+        assertEquals(45, objectMapper.writeValueAsBytes(new CardNumberDto("4571736012345678")).length);
+        assertEquals(31, cbor.writeValueAsBytes(new ClearingCostDto("US", 5.0)).length);
+        assertEquals(31, objectMapper.writeValueAsBytes(new ClearingCostDto("US", 5.0)).length);
+        assertEquals(6802, cbor.writeValueAsBytes(batch).length);
+        assertEquals(7701, objectMapper.writeValueAsBytes(batch).length);
+    }
+
+    @Test
+    void cardCost_WithCborBody_AnswersErrorsInCbor() throws Exception {
+        byte[] body = mockMvc.perform(post("/card-cost/payment-cards-cost").with(httpBasic("admin", "admin"))
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(new CardNumberDto("12"))))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertTrue(cborMapper.readValue(body, Map.class).containsKey("error"));
+    }
+}
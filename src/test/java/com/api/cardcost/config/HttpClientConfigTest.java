@@ -0,0 +1,40 @@
+package com.api.cardcost.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withUserConfiguration(HttpClientConfig.class);
+
+    @Test
+    void httpClient_WithVirtualThreads_ExecutorIsClosedWithTheContext() {
+        AtomicReference<ExecutorService> executor = new AtomicReference<>();
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(context -> {
+                    executor.set(context.getBean("httpClientExecutor", ExecutorService.class));
+                    assertSame(executor.get(), context.getBean(HttpClient.class).executor().orElseThrow());
+                    assertFalse(executor.get().isShutdown());
+                });
+
+        assertTrue(executor.get().isShutdown());
+    }
+
+    @Test
+    void httpClient_WithoutVirtualThreads_UsesDefaultExecutor() {
+        contextRunner.run(context -> {
+            assertFalse(context.containsBean("httpClientExecutor"));
+            assertTrue(context.getBean(HttpClient.class).executor().isEmpty());
+        });
+    }
+}
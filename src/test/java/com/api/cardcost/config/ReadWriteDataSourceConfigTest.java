@@ -0,0 +1,62 @@
+package com.api.cardcost.config;
+
+import com.api.cardcost.entities.dtos.ClearingCostDto;
+import com.api.cardcost.exceptions.NotFoundException;
+import com.api.cardcost.services.CardCostService;
+import com.api.cardcost.services.ClearingCostTable;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:read-write-primary",
+        "cardcost.datasource.replica.url=jdbc:h2:mem:read-write-replica",
+        "cardcost.datasource.replica.read-your-writes=1h",
+        "cardcost.warmup.enabled=false"
+})
+class ReadWriteDataSourceConfigTest {
+
+    @Autowired
+    private CardCostService cardCostService;
+
+    @Autowired
+    private HikariDataSource replicaDataSource;
+
+    @Autowired
+    private ClearingCostTable clearingCostTable;
+
+    @BeforeEach
+    void setupReplica() {
+        // The replica lags behind the primary: it only knows DE.
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("CREATE TABLE IF NOT EXISTS clearing_costs (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "country_code VARCHAR(255) NOT NULL UNIQUE, cost DOUBLE NOT NULL)");
+        replica.execute("MERGE INTO clearing_costs (country_code, cost) KEY (country_code) VALUES ('DE', 7.0)");
+    }
+
+    @Test
+    void readOnlyQueries_GoToReplicaUntilThisInstanceWrites() {
+        assertEquals(7.0, cardCostService.getClearingCost("DE").getCost());
+        assertEquals(List.of(new ClearingCostDto("DE", 7.0)), cardCostService.getAllClearingCost());
+        assertThrows(NotFoundException.class, () -> cardCostService.getClearingCost("US"));
+
+        cardCostService.createClearingCost(new ClearingCostDto("IT", 9.0));
+
+        assertEquals(9.0, cardCostService.getClearingCost("IT").getCost());
+        assertEquals(5.0, cardCostService.getClearingCost("US").getCost());
+        assertThrows(NotFoundException.class, () -> cardCostService.getClearingCost("DE"));
+    }
+
+    @Test
+    void inMemoryTables_AreLoadedFromPrimary() {
+        assertEquals(5.0, clearingCostTable.cost("US", -1.0));
+        assertEquals(-1.0, clearingCostTable.cost("DE", -1.0));
+    }
+}
@@ -0,0 +1,42 @@
+package com.api.cardcost.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:security-config-test")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prometheus_WithoutCredentials_IsScrapeable() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("cardcost_pricing_stage_seconds")))
+                .andExpect(content().string(containsString("cardcost_bin_provider_requests_seconds")));
+    }
+
+    @Test
+    void health_WithoutCredentials_IsAvailable() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void api_WithoutCredentials_IsUnauthorized() throws Exception {
+        mockMvc.perform(get("/card-cost/bin-lookup/stats"))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -1,49 +1,84 @@
 package com.api.cardcost.controllers;
 
+import com.api.cardcost.entities.dtos.CardCostResultDto;
 import com.api.cardcost.entities.dtos.CardNumberDto;
+import com.api.cardcost.entities.dtos.CardNumbersDto;
+import com.api.cardcost.entities.dtos.ClearingCostChangeDto;
+import com.api.cardcost.entities.dtos.ClearingCostChangesDto;
 import com.api.cardcost.entities.dtos.ClearingCostDto;
+import com.api.cardcost.entities.dtos.ClearingCostImportDto;
+import com.api.cardcost.entities.dtos.ClearingCostRuleDto;
 import com.api.cardcost.entities.dtos.CountryCodeDto;
+import com.api.cardcost.exceptions.GlobalExceptionHandler;
 import com.api.cardcost.services.CardCostService;
+import com.api.cardcost.services.CardCostStreamer;
+import com.api.cardcost.services.ClearingCostChangeFeed;
+import com.api.cardcost.services.ClearingCostChangeLog;
+import com.api.cardcost.services.ClearingCostRevisions;
+import com.api.cardcost.services.ClearingCostRevisions.Revisioned;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.json.JsonCompareMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @AutoConfigureMockMvc(addFilters = false)
 class CardCostControllerTest {
 
+    private static final ClearingCostRevisions.Revision REVISION = new ClearingCostRevisions.Revision(1, 3);
+
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
 
     @Mock
     private CardCostService cardCostService;
 
-    @InjectMocks
+    @Mock
+    private CardCostStreamer cardCostStreamer;
+
+    @Mock
+    private ClearingCostChangeFeed clearingCostChangeFeed;
+
     private CardCostController cardCostController;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        cardCostController = new CardCostController(cardCostService, cardCostStreamer, clearingCostChangeFeed,
+                Duration.ZERO);
         mockMvc = MockMvcBuilders.standaloneSetup(cardCostController).build();
         objectMapper = new ObjectMapper();
+        when(cardCostService.getClearingCostRevision()).thenReturn(REVISION);
     }
 
     @Test
@@ -79,13 +114,104 @@ class CardCostControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void testCreateClearingCostRule() throws Exception {
+        ClearingCostRuleDto rule = new ClearingCostRuleDto(null, "GR", "visa", "credit", null, 16.0, null);
+        when(cardCostService.createClearingCostRule(rule))
+                .thenReturn(new ClearingCostRuleDto(1L, "GR", "VISA", "CREDIT", null, 16.0, 0));
+
+        mockMvc.perform(post("/card-cost/rules")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(rule)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.scheme").value("VISA"));
+    }
+
+    @Test
+    void testDeleteClearingCostRule() throws Exception {
+        mockMvc.perform(delete("/card-cost/rules/1"))
+                .andExpect(status().isOk());
+
+        verify(cardCostService).deleteClearingCostRule(1L);
+    }
+
+    @Test
+    void testImportClearingCosts_Json() throws Exception {
+        List<ClearingCostDto> clearingCosts = List.of(new ClearingCostDto("US", 5.0), new ClearingCostDto("DK", 7.0));
+        when(cardCostService.importClearingCosts(clearingCosts, true)).thenReturn(new ClearingCostImportDto(2, 1, 0, 1, 2));
+
+        mockMvc.perform(post("/card-cost/import").param("replace", "true")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(clearingCosts)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.deleted").value(2));
+    }
+
+    @Test
+    void testImportClearingCosts_Csv() throws Exception {
+        when(cardCostService.importClearingCostsCsv("US,5.0\nDK,7.0\n", false))
+                .thenReturn(new ClearingCostImportDto(2, 2, 0, 0, 0));
+
+        mockMvc.perform(post("/card-cost/import")
+                        .contentType("text/csv")
+                        .content("US,5.0\nDK,7.0\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2));
+    }
+
     @Test
     void testGetClearingCost() throws Exception {
         ClearingCostDto clearingCostDto = new ClearingCostDto("US", 5.0);
-        when(cardCostService.getClearingCost("US")).thenReturn(clearingCostDto);
+        when(cardCostService.getClearingCostAtRevision("US")).thenReturn(new Revisioned<>(REVISION, clearingCostDto));
 
         mockMvc.perform(get("/card-cost/US"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+    }
+
+    @Test
+    void testGetClearingCost_UnexpectedError_ReturnsFixedBody() throws Exception {
+        MockMvc advisedMockMvc = MockMvcBuilders.standaloneSetup(cardCostController)
+                .setControllerAdvice(new GlobalExceptionHandler()).build();
+        when(cardCostService.getClearingCostAtRevision("US")).thenThrow(new IllegalStateException("pool exhausted"));
+
+        advisedMockMvc.perform(get("/card-cost/US"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value("Internal server error."));
+    }
+
+    @Test
+    void testCreateClearingCost_MalformedBody_StillReturnsBadRequest() throws Exception {
+        MockMvc advisedMockMvc = MockMvcBuilders.standaloneSetup(cardCostController)
+                .setControllerAdvice(new GlobalExceptionHandler()).build();
+
+        advisedMockMvc.perform(post("/card-cost").contentType("application/json").content("{"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetClearingCost_MatchingETag_ReturnsNotModifiedWithoutReading() throws Exception {
+        mockMvc.perform(get("/card-cost/US").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1-3\""))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(content().string(""));
+        verify(cardCostService, never()).getClearingCostAtRevision(anyString());
+    }
+
+    @Test
+    void testGetClearingCost_LaggingRead_IsTaggedWithItsOwnRevision() throws Exception {
+        when(cardCostService.getClearingCostRevision()).thenReturn(new ClearingCostRevisions.Revision(1, 4));
+        when(cardCostService.getClearingCostAtRevision("US"))
+                .thenReturn(new Revisioned<>(REVISION, new ClearingCostDto("US", 5.0)));
+
+        mockMvc.perform(get("/card-cost/US").header("If-None-Match", "\"1-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""))
+                .andExpect(jsonPath("$.cost").value(5.0));
     }
 
     @Test
@@ -95,23 +221,156 @@ class CardCostControllerTest {
                 new ClearingCostDto("GR", 15.0)
         );
 
-        when(cardCostService.getAllClearingCost()).thenReturn(clearingCosts);
+        when(cardCostService.getAllClearingCostAtRevision()).thenReturn(new Revisioned<>(REVISION, clearingCosts));
 
         mockMvc.perform(get("/card-cost"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""));
+    }
+
+    @Test
+    void testGetAllClearingCost_ReturnsChangeSequence() throws Exception {
+        when(cardCostService.getAllClearingCostAtRevision())
+                .thenReturn(new Revisioned<>(REVISION, List.of(new ClearingCostDto("US", 5.0))));
+
+        mockMvc.perform(get("/card-cost"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Change-Sequence", "3"));
+    }
+
+    @Test
+    void testGetClearingCostChanges() throws Exception {
+        when(cardCostService.getClearingCostChanges(41, 1000)).thenReturn(new ClearingCostChangesDto(42,
+                List.of(new ClearingCostChangeDto(42, "UPDATED", "US", 6.0))));
+
+        mockMvc.perform(get("/card-cost/changes").param("since", "41"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sequence").value(42))
+                .andExpect(jsonPath("$.changes[0].operation").value("UPDATED"))
+                .andExpect(jsonPath("$.changes[0].cost").value(6.0));
+    }
+
+    @Test
+    void testStreamClearingCostChanges_SendsBacklogAndNewChanges() throws Exception {
+        ClearingCostChangeLog changeLog = mock(ClearingCostChangeLog.class);
+        when(changeLog.changesSince(40, 1000)).thenReturn(new ClearingCostChangesDto(41,
+                List.of(new ClearingCostChangeDto(41, "CREATED", "US", 5.0))));
+        when(changeLog.changesSince(41, 1000)).thenReturn(new ClearingCostChangesDto(41, List.of()),
+                new ClearingCostChangesDto(42, List.of(new ClearingCostChangeDto(42, "DELETED", "US", null))));
+        when(changeLog.changesSince(42, 1000)).thenReturn(new ClearingCostChangesDto(42, List.of()));
+        ClearingCostChangeFeed changeFeed = new ClearingCostChangeFeed(changeLog);
+        ArgumentCaptor<LongConsumer> listener = ArgumentCaptor.forClass(LongConsumer.class);
+        verify(changeLog).addListener(listener.capture());
+        MockMvc streamMockMvc = MockMvcBuilders.standaloneSetup(new CardCostController(cardCostService,
+                cardCostStreamer, changeFeed, Duration.ZERO)).build();
+
+        MvcResult result = streamMockMvc.perform(get("/card-cost/changes/stream").header("Last-Event-ID", "40"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(result, "id:41");
+        listener.getValue().accept(42);
+
+        String deleted = "data:{\"sequence\":42,\"operation\":\"DELETED\",\"countryCode\":\"US\"}";
+        String events = awaitContent(result, deleted);
+        assertTrue(events.indexOf("id:41") < events.indexOf("id:42"));
+        assertTrue(events.contains("event:clearing-cost"));
+        assertTrue(events.contains(deleted));
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
+    @Test
+    void testGetAllClearingCost_StaleETag_ReturnsFullList() throws Exception {
+        when(cardCostService.getAllClearingCostAtRevision())
+                .thenReturn(new Revisioned<>(REVISION, List.of(new ClearingCostDto("US", 5.0))));
+
+        mockMvc.perform(get("/card-cost").header("If-None-Match", "\"1-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""))
+                .andExpect(jsonPath("$[0].countryCode").value("US"));
+    }
+
+    @Test
+    void testGetAllClearingCost_MatchingETag_ReturnsNotModifiedWithoutReading() throws Exception {
+        mockMvc.perform(get("/card-cost").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(cardCostService, never()).getAllClearingCostAtRevision();
     }
 
     @Test
     void testGetCardCost() throws Exception {
-        CardNumberDto cardNumberDto = new CardNumberDto(45717360);
-        ClearingCostDto mockResponse = new ClearingCostDto("US", 5.0);
+        CardNumberDto cardNumberDto = new CardNumberDto("4571736000000000");
+        CardCostResultDto mockResponse = new CardCostResultDto("4571736000000000", "US", 5.0, 200, null);
 
-        when(cardCostService.getCardCost(45717360)).thenReturn(mockResponse);
+        when(cardCostService.resolveCardCost("4571736000000000", null)).thenReturn(mockResponse);
 
         mockMvc.perform(post("/card-cost/payment-cards-cost")
                         .contentType("application/json")
                         .content(objectMapper.writeValueAsString(cardNumberDto)))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"countryCode\":\"US\",\"cost\":5.0}", JsonCompareMode.STRICT));
+    }
+
+    @Test
+    void testGetCardCost_Throttled() throws Exception {
+        CardNumberDto cardNumberDto = new CardNumberDto("4571736000000000");
+        CardCostResultDto mockResponse = new CardCostResultDto("4571736000000000", null, null, 429,
+                "Too many requests. Error: 429 Too Many Requests");
+
+        when(cardCostService.resolveCardCost("4571736000000000", null)).thenReturn(mockResponse);
+
+        mockMvc.perform(post("/card-cost/payment-cards-cost")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(cardNumberDto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(content().json("{\"error\":\"Too many requests. Error: 429 Too Many Requests\"}",
+                        JsonCompareMode.STRICT));
+    }
+
+    @Test
+    void testGetCardCosts() throws Exception {
+        CardNumbersDto cardNumbersDto = new CardNumbersDto(List.of("45717360", "12345674"));
+        List<CardCostResultDto> mockResponse = List.of(
+                new CardCostResultDto("45717360", "US", 5.0, 200, null),
+                new CardCostResultDto("12345674", null, null, 404, "Country not found."));
+
+        when(cardCostService.getCardCosts(List.of("45717360", "12345674"), null)).thenReturn(mockResponse);
+
+        mockMvc.perform(post("/card-cost/payment-cards-cost/batch")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(cardNumbersDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].cost").value(5.0))
+                .andExpect(jsonPath("$[1].status").value(404));
+    }
+
+    @Test
+    void testStreamCardCosts() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(1);
+            output.write("{\"cardNumber\":\"45717360\",\"status\":200}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(cardCostStreamer).stream(any(), any());
+
+        MvcResult result = mockMvc.perform(post("/card-cost/payment-cards-cost/stream")
+                        .contentType("application/x-ndjson")
+                        .content("45717360\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"cardNumber\":\"45717360\",\"status\":200}\n"));
     }
 
-}
\ No newline at end of file
+}
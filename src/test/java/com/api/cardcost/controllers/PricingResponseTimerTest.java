@@ -0,0 +1,48 @@
+package com.api.cardcost.controllers;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pricing-response-timer-test",
+        "cardcost.warmup.enabled=false"
+})
+@AutoConfigureMockMvc
+class PricingResponseTimerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void responseStage_OnlyTimesPricingEndpoints() throws Exception {
+        Timer timer = registry.get("cardcost.pricing.stage").tag("stage", "response").timer();
+        long before = timer.count();
+
+        mockMvc.perform(get("/card-cost/US").with(httpBasic("admin", "admin")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/card-cost").with(httpBasic("admin", "admin")))
+                .andExpect(status().isOk());
+        assertEquals(before, timer.count());
+
+        mockMvc.perform(post("/card-cost/payment-cards-cost/batch").with(httpBasic("admin", "admin"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"cardNumbers\":[\"1234567\"]}"))
+                .andExpect(status().isOk());
+        assertEquals(before + 1, timer.count());
+    }
+}
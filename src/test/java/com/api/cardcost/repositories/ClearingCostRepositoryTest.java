@@ -0,0 +1,75 @@
+package com.api.cardcost.repositories;
+
+import com.api.cardcost.entities.ClearingCostVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class ClearingCostRepositoryTest {
+
+    @Autowired
+    private ClearingCostRepository clearingCostRepository;
+
+    @Autowired
+    private ClearingCostVersionRepository clearingCostVersionRepository;
+
+    @Test
+    void upsertAll_InsertsNewAndUpdatesExistingCountries() {
+        Map<String, Double> costs = new LinkedHashMap<>();
+        costs.put("US", 6.0);
+        costs.put("DK", 7.5);
+
+        int[] counts = clearingCostRepository.upsertAll(costs);
+
+        assertEquals(2, counts.length);
+        assertEquals(Map.of("US", 6.0, "GR", 15.0, "FR", 10.0, "DK", 7.5), clearingCostRepository.findAllCosts());
+        assertEquals(7.5, clearingCostRepository.findByCountryCode("DK").orElseThrow().getCost());
+    }
+
+    @Test
+    void deleteAllByCountryCode_RemovesOnlyListedCountries() {
+        clearingCostRepository.deleteAllByCountryCode(List.of("GR", "FR", "XX"));
+
+        assertEquals(Map.of("US", 5.0), clearingCostRepository.findAllCosts());
+    }
+
+    @Test
+    void insertVersions_StoresCostsAndDeletionsOrderedByValidFrom() {
+        Instant march = Instant.parse("2026-03-01T00:00:00Z");
+        Map<String, Double> deleted = new HashMap<>();
+        deleted.put("FR", null);
+        clearingCostRepository.insertVersions(deleted, march);
+        clearingCostRepository.insertVersions(Map.of("GR", 12.0), march.minusSeconds(60));
+
+        List<ClearingCostVersion> versions = clearingCostVersionRepository.findAllByOrderByValidFromAscIdAsc();
+
+        assertEquals(2, versions.size());
+        assertEquals("GR", versions.get(0).getCountryCode());
+        assertEquals(12.0, versions.get(0).getCost());
+        assertEquals(march.minusSeconds(60), versions.get(0).getValidFrom());
+        assertEquals("FR", versions.get(1).getCountryCode());
+        assertNull(versions.get(1).getCost());
+        assertEquals(march, versions.get(1).getValidFrom());
+    }
+
+    @Test
+    void incrementRevision_AddsChangesToTheSingleRevisionRow() {
+        assertEquals(0, clearingCostRepository.findRevision().getRevision());
+        assertTrue(clearingCostRepository.insertRevisionIfMissing(1234L));
+        assertFalse(clearingCostRepository.insertRevisionIfMissing(5678L));
+
+        assertEquals(1, clearingCostRepository.incrementRevision(1));
+        assertEquals(4, clearingCostRepository.incrementRevision(3));
+        assertEquals(4, clearingCostRepository.findRevision().getRevision());
+        assertEquals(1234L, clearingCostRepository.findRevision().getEpoch());
+    }
+}
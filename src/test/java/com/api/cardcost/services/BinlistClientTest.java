@@ -1,107 +1,191 @@
 package com.api.cardcost.services;
 
-import com.api.cardcost.config.RestTemplateConfig;
+import com.api.cardcost.services.bin.BinLookupResult;
+import com.api.cardcost.services.bin.CardAttributes;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 class BinlistClientTest {
 
     @Mock
-    private RestTemplateConfig restTemplateConfig;
+    private HttpClient httpClient;
 
-    @Mock
-    private RestTemplate restTemplate;
-
-    @InjectMocks
     private BinlistClient binlistClient;
 
-    private static final String BINLIST_URL = "https://lookup.binlist.net/";
-
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
-        when(restTemplateConfig.restTemplate()).thenReturn(restTemplate);
+        binlistClient = new BinlistClient(httpClient, Duration.ofSeconds(3));
     }
 
     @Test
-    void testGetCountryAlpha2_Success() {
-        Integer cardNumber = 45717360;
-        String expectedCountryCode = "US";
+    void testGetCountryAlpha2_Success() throws Exception {
+        stubResponse(200, "{\"country\":{\"alpha2\":\"US\"}}");
 
-        Map<String, Object> country = new HashMap<>();
-        country.put("alpha2", expectedCountryCode);
-        Map<String, Object> response = new HashMap<>();
-        response.put("country", country);
+        BinLookupResult result = binlistClient.getCountryAlpha2(45717360);
 
-        when(restTemplate.getForObject(BINLIST_URL + cardNumber, Map.class)).thenReturn(response);
+        assertEquals(BinLookupResult.Status.FOUND, result.status());
+        assertEquals("US", result.countryCode());
+        assertEquals(CardAttributes.UNKNOWN, result.attributes());
+    }
+
+    @Test
+    void testGetCountryAlpha2_ParsesSchemeTypeAndPrepaid() throws Exception {
+        stubResponse(200, "{\"scheme\":\"visa\",\"type\":\"credit\",\"prepaid\":false,"
+                + "\"country\":{\"alpha2\":\"US\"}}");
 
-        ResponseEntity<String> result = binlistClient.getCountryAlpha2(cardNumber);
+        int attributes = binlistClient.getCountryAlpha2(45717360).attributes();
 
-        assertEquals(HttpStatus.OK, result.getStatusCode());
-        assertEquals(expectedCountryCode, result.getBody());
+        assertEquals(CardAttributes.of(CardAttributes.Scheme.VISA, CardAttributes.Type.CREDIT, false), attributes);
     }
 
     @Test
-    void testGetCountryAlpha2_NotFound() {
-        Integer cardNumber = 45717360;
+    void testGetCountryAlpha2_NotFound() throws Exception {
+        stubResponse(200, "{}");
 
-        when(restTemplate.getForObject(BINLIST_URL + cardNumber, Map.class)).thenReturn(new HashMap<>());
+        BinLookupResult result = binlistClient.getCountryAlpha2(45717360);
 
-        ResponseEntity<String> result = binlistClient.getCountryAlpha2(cardNumber);
+        assertSame(BinLookupResult.COUNTRY_NOT_FOUND, result);
+        assertEquals("Country not found", result.message());
+    }
+
+    @Test
+    void testGetCountryAlpha2_ApiReturns404() throws Exception {
+        stubResponse(404, "");
 
-        assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
-        assertEquals("Country not found", result.getBody());
+        BinLookupResult result = binlistClient.getCountryAlpha2(45717360);
+
+        assertEquals(BinLookupResult.Status.NOT_FOUND, result.status());
+        assertEquals("404 Not Found", result.message());
     }
 
     @Test
-    void testGetCountryAlpha2_ApiReturns404() {
-        Integer cardNumber = 45717360;
+    void testGetCountryAlpha2_ApiReturns429() throws Exception {
+        stubResponse(429, "");
+
+        BinLookupResult result = binlistClient.getCountryAlpha2(45717360);
 
-        when(restTemplate.getForObject(BINLIST_URL + cardNumber, Map.class))
-                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND, "Not Found"));
+        assertSame(BinLookupResult.TOO_MANY_REQUESTS, result);
+        assertEquals("429 Too Many Requests", result.message());
+    }
+
+    @Test
+    void testGetCountryAlpha2_ApiReturns400() throws Exception {
+        stubResponse(400, "");
 
-        ResponseEntity<String> result = binlistClient.getCountryAlpha2(cardNumber);
+        BinLookupResult result = binlistClient.getCountryAlpha2(45717360);
 
-        assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
-        assertEquals("404 Not Found", result.getBody());
+        assertEquals(BinLookupResult.Status.FAILED, result.status());
+        assertTrue(result.isFailure());
     }
 
     @Test
-    void testGetCountryAlpha2_ApiReturns429() {
-        Integer cardNumber = 45717360;
+    void testGetCountryAlpha2_InternalServerError() throws Exception {
+        doThrow(new IOException("Unexpected error")).when(httpClient).send(any(HttpRequest.class), any());
 
-        when(restTemplate.getForObject(BINLIST_URL + cardNumber, Map.class))
-                .thenThrow(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests"));
+        BinLookupResult result = binlistClient.getCountryAlpha2(45717360);
 
-        ResponseEntity<String> result = binlistClient.getCountryAlpha2(cardNumber);
+        assertEquals(BinLookupResult.Status.FAILED, result.status());
+        assertTrue(result.message().contains("Unexpected error"));
+    }
+
+    @Test
+    void testGetCountryAlpha2Async_Success() {
+        stubAsyncResponse(200, "{\"scheme\":\"visa\",\"country\":{\"alpha2\":\"DK\"}}");
 
-        assertEquals(HttpStatus.TOO_MANY_REQUESTS, result.getStatusCode());
-        assertEquals("429 Too Many Requests", result.getBody());
+        BinLookupResult result = binlistClient.getCountryAlpha2Async(45717360).join();
+
+        assertTrue(result.isFound());
+        assertEquals("DK", result.countryCode());
+        assertEquals(CardAttributes.of(CardAttributes.Scheme.VISA, CardAttributes.Type.UNKNOWN, null),
+                result.attributes());
     }
 
     @Test
-    void testGetCountryAlpha2_InternalServerError() {
-        Integer cardNumber = 45717360;
+    void testGetCountryAlpha2Async_ParsesSchemeTypeAndPrepaid() {
+        stubAsyncResponse(200, "{\"scheme\":\"mastercard\",\"type\":\"debit\",\"prepaid\":true,"
+                + "\"country\":{\"alpha2\":\"GR\"}}");
+
+        int attributes = binlistClient.getCountryAlpha2Async(45717360).join().attributes();
 
-        when(restTemplate.getForObject(BINLIST_URL + cardNumber, Map.class))
-                .thenThrow(new RuntimeException("Unexpected error"));
+        assertEquals(CardAttributes.Scheme.MASTERCARD, CardAttributes.scheme(attributes));
+        assertEquals(CardAttributes.Type.DEBIT, CardAttributes.type(attributes));
+        assertEquals(Boolean.TRUE, CardAttributes.prepaid(attributes));
+    }
+
+    @Test
+    void testGetCountryAlpha2Async_NoCountry() {
+        stubAsyncResponse(200, "{\"scheme\":\"visa\"}");
 
-        ResponseEntity<String> result = binlistClient.getCountryAlpha2(cardNumber);
+        BinLookupResult result = binlistClient.getCountryAlpha2Async(45717360).join();
+
+        assertEquals(BinLookupResult.Status.NOT_FOUND, result.status());
+        assertEquals("Country not found", result.message());
+    }
+
+    @Test
+    void testGetCountryAlpha2Async_ApiReturns429() {
+        stubAsyncResponse(429, "");
+
+        BinLookupResult result = binlistClient.getCountryAlpha2Async(45717360).join();
+
+        assertEquals(BinLookupResult.Status.THROTTLED, result.status());
+        assertEquals("429 Too Many Requests", result.message());
+    }
+
+    @Test
+    void testGetCountryAlpha2Async_ApiReturns503() {
+        stubAsyncResponse(503, "");
+
+        BinLookupResult result = binlistClient.getCountryAlpha2Async(45717360).join();
+
+        assertEquals(BinLookupResult.Status.FAILED, result.status());
+        assertEquals(500, result.status().httpStatus());
+    }
+
+    @Test
+    void testGetCountryAlpha2Async_Timeout() {
+        doReturn(CompletableFuture.failedFuture(new HttpTimeoutException("request timed out")))
+                .when(httpClient).sendAsync(any(HttpRequest.class), any());
+
+        BinLookupResult result = binlistClient.getCountryAlpha2Async(45717360).join();
+
+        assertEquals(BinLookupResult.Status.FAILED, result.status());
+        assertTrue(result.message().contains("request timed out"));
+    }
+
+    private void stubResponse(int status, String body) throws Exception {
+        doReturn(response(status, body)).when(httpClient).send(any(HttpRequest.class), any());
+    }
+
+    private void stubAsyncResponse(int status, String body) {
+        doReturn(CompletableFuture.completedFuture(response(status, body)))
+                .when(httpClient).sendAsync(any(HttpRequest.class), any());
+    }
 
-        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, result.getStatusCode());
-        assertEquals("Unexpected error", result.getBody());
+    @SuppressWarnings("unchecked")
+    private static HttpResponse<byte[]> response(int status, String body) {
+        HttpResponse<byte[]> response = mock(HttpResponse.class);
+        when(response.statusCode()).thenReturn(status);
+        when(response.body()).thenReturn(body.getBytes(StandardCharsets.UTF_8));
+        return response;
     }
-}
\ No newline at end of file
+}
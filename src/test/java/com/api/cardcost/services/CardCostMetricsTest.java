@@ -0,0 +1,40 @@
+package com.api.cardcost.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardCostMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CardCostMetrics metrics = new CardCostMetrics(registry);
+
+    @Test
+    void recordStage_RecordsIntoStageTimer() {
+        metrics.recordStage(CardCostMetrics.Stage.BIN_RESOLUTION, 2_000_000);
+        metrics.recordStage(CardCostMetrics.Stage.BIN_RESOLUTION, 4_000_000);
+
+        var timer = registry.get("cardcost.pricing.stage").tag("stage", "bin_resolution").timer();
+        assertEquals(2, timer.count());
+        assertEquals(6.0, timer.totalTime(TimeUnit.MILLISECONDS), 1e-9);
+        assertEquals(0, registry.get("cardcost.pricing.stage").tag("stage", "validation").timer().count());
+    }
+
+    @Test
+    void recordOutcome_CountsPerOutcomeAndCountry() {
+        metrics.recordOutcome(200, "DK");
+        metrics.recordOutcome(200, "DK");
+        metrics.recordOutcome(200, "US");
+        metrics.recordOutcome(429, null);
+        metrics.recordOutcome(503, null);
+
+        assertEquals(2, registry.get("cardcost.pricing.outcomes").tags("outcome", "ok", "country", "DK").counter().count());
+        assertEquals(1, registry.get("cardcost.pricing.outcomes").tags("outcome", "ok", "country", "US").counter().count());
+        assertEquals(1, registry.get("cardcost.pricing.outcomes")
+                .tags("outcome", "too_many_requests", "country", "none").counter().count());
+        assertEquals(1, registry.get("cardcost.pricing.outcomes").tags("outcome", "error", "country", "none").counter().count());
+    }
+}
@@ -1,25 +1,39 @@
 package com.api.cardcost.services;
 
 import com.api.cardcost.entities.ClearingCost;
+import com.api.cardcost.entities.ClearingCostRule;
+import com.api.cardcost.entities.dtos.CardCostResultDto;
 import com.api.cardcost.entities.dtos.ClearingCostDto;
+import com.api.cardcost.entities.dtos.ClearingCostImportDto;
+import com.api.cardcost.entities.dtos.ClearingCostRuleDto;
+import com.api.cardcost.exceptions.BinLookupException;
 import com.api.cardcost.exceptions.NotFoundException;
 import com.api.cardcost.exceptions.TooManyRequestsException;
 import com.api.cardcost.repositories.ClearingCostRepository;
+import com.api.cardcost.repositories.ClearingCostRuleRepository;
+import com.api.cardcost.services.bin.BinLookupResult;
+import com.api.cardcost.services.bin.BinResolver;
+import com.api.cardcost.services.bin.CardAttributes;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,11 +43,39 @@ class CardCostServiceTest {
     private ClearingCostRepository clearingCostRepository;
 
     @Mock
-    private BinlistClient binlistClient;
+    private BinResolver binResolver;
+
+    @Mock
+    private ClearingCostTable clearingCostTable;
+
+    @Mock
+    private ClearingCostRevisions clearingCostRevisions;
+
+    @Mock
+    private ClearingCostChangeLog changeLog;
+
+    @Mock
+    private ClearingCostHistory clearingCostHistory;
+
+    @Mock
+    private ClearingCostRuleRepository clearingCostRuleRepository;
+
+    @Mock
+    private ClearingCostRules clearingCostRules;
+
+    @Mock
+    private CardCostMetrics cardCostMetrics;
 
-    @InjectMocks
     private CardCostService cardCostService;
 
+    @BeforeEach
+    void setup() {
+        cardCostService = new CardCostService(binResolver, clearingCostRepository, clearingCostTable,
+                clearingCostRevisions, changeLog, clearingCostHistory, clearingCostRuleRepository, clearingCostRules,
+                cardCostMetrics, 10.0);
+        lenient().when(clearingCostRules.cost(any(), anyInt())).thenReturn(Double.NaN);
+    }
+
     @Test
     public void createClearingCost_SuccessfullyCreates() {
         ClearingCostDto clearingCostDto = new ClearingCostDto("US", 5.0);
@@ -43,6 +85,9 @@ class CardCostServiceTest {
         cardCostService.createClearingCost(clearingCostDto);
 
         verify(clearingCostRepository, times(1)).save(any(ClearingCost.class));
+        verify(clearingCostTable).put("US", 5.0);
+        verify(changeLog).record(ClearingCostChangeLog.Operation.CREATED, "US", 5.0);
+        verify(clearingCostHistory).record("US", 5.0);
     }
 
     @Test
@@ -89,6 +134,9 @@ class CardCostServiceTest {
         cardCostService.deleteClearingCost("US");
 
         verify(clearingCostRepository, times(1)).delete(any(ClearingCost.class));
+        verify(clearingCostTable).remove("US");
+        verify(changeLog).record(ClearingCostChangeLog.Operation.DELETED, "US", null);
+        verify(clearingCostHistory).record("US", null);
     }
 
     @Test
@@ -125,6 +173,9 @@ class CardCostServiceTest {
         assertEquals("US", result.getCountryCode());
         assertEquals(6.0, result.getCost());
         verify(clearingCostRepository, times(1)).save(existingClearingCost);
+        verify(clearingCostTable).put("US", 6.0);
+        verify(changeLog).record(ClearingCostChangeLog.Operation.UPDATED, "US", 6.0);
+        verify(clearingCostHistory).record("US", 6.0);
     }
 
     @Test
@@ -173,6 +224,90 @@ class CardCostServiceTest {
         });
     }
 
+    @Test
+    public void importClearingCosts_UpsertsOnlyChangedCountriesAndSummarizes() {
+        when(clearingCostRepository.findAllCosts()).thenReturn(Map.of("US", 5.0, "GR", 15.0, "FR", 10.0));
+
+        ClearingCostImportDto result = cardCostService.importClearingCosts(List.of(
+                new ClearingCostDto("US", 5.0), new ClearingCostDto("GR", 12.0), new ClearingCostDto("DK", 7.0)), false);
+
+        assertEquals(new ClearingCostImportDto(3, 1, 1, 1, 0), result);
+        verify(clearingCostRepository).upsertAll(Map.of("GR", 12.0, "DK", 7.0));
+        verify(clearingCostRepository, never()).deleteAllByCountryCode(any());
+        verify(clearingCostTable).update(Map.of("GR", 12.0, "DK", 7.0), List.of());
+        verify(changeLog).record(List.of(
+                new ClearingCostChangeLog.Change(ClearingCostChangeLog.Operation.UPDATED, "GR", 12.0),
+                new ClearingCostChangeLog.Change(ClearingCostChangeLog.Operation.CREATED, "DK", 7.0)));
+        verifyNoMoreInteractions(changeLog);
+        verify(clearingCostHistory).recordAll(Map.of("GR", 12.0, "DK", 7.0));
+    }
+
+    @Test
+    public void importClearingCosts_Replace_DeletesMissingCountries() {
+        when(clearingCostRepository.findAllCosts()).thenReturn(Map.of("US", 5.0, "GR", 15.0));
+
+        ClearingCostImportDto result = cardCostService.importClearingCosts(List.of(new ClearingCostDto("US", 5.0)), true);
+
+        assertEquals(new ClearingCostImportDto(1, 0, 0, 1, 1), result);
+        verify(clearingCostRepository, never()).upsertAll(any());
+        verify(clearingCostRepository).deleteAllByCountryCode(List.of("GR"));
+        verify(changeLog).record(List.of(
+                new ClearingCostChangeLog.Change(ClearingCostChangeLog.Operation.DELETED, "GR", null)));
+        Map<String, Double> versions = new HashMap<>();
+        versions.put("GR", null);
+        verify(clearingCostHistory).recordAll(versions);
+    }
+
+    @Test
+    public void importClearingCosts_InvalidRow_RejectsWholeImport() {
+        List<ClearingCostDto> clearingCosts = List.of(new ClearingCostDto("US", 5.0), new ClearingCostDto("USA", 1.0));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> cardCostService.importClearingCosts(clearingCosts, false));
+
+        assertEquals("Row 2: Country code must have 2 characters.", exception.getMessage());
+        verifyNoInteractions(clearingCostRepository, clearingCostTable, changeLog);
+    }
+
+    @Test
+    public void importClearingCosts_DuplicateCountry_RejectsWholeImport() {
+        List<ClearingCostDto> clearingCosts = List.of(new ClearingCostDto("US", 5.0), new ClearingCostDto("US", 6.0));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> cardCostService.importClearingCosts(clearingCosts, false));
+
+        assertEquals("Row 2: Duplicate country code US.", exception.getMessage());
+        verifyNoInteractions(clearingCostRepository);
+    }
+
+    @Test
+    public void importClearingCostsCsv_ParsesHeaderCommentsAndRows() {
+        when(clearingCostRepository.findAllCosts()).thenReturn(Map.of());
+
+        ClearingCostImportDto result = cardCostService.importClearingCostsCsv(
+                "countryCode,cost\r\n# fees 2026\nUS, 5.0\n\nGR,15\n", false);
+
+        assertEquals(new ClearingCostImportDto(2, 2, 0, 0, 0), result);
+        verify(clearingCostRepository).upsertAll(Map.of("US", 5.0, "GR", 15.0));
+    }
+
+    @Test
+    public void importClearingCostsCsv_MalformedLine_ThrowsIllegalArgumentException() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> cardCostService.importClearingCostsCsv("US,5.0\nGR;15\n", false));
+
+        assertEquals("Line 2: Expected countryCode,cost.", exception.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> cardCostService.importClearingCostsCsv("US,abc", false));
+        verifyNoInteractions(clearingCostRepository);
+    }
+
+    @Test
+    public void getClearingCostChanges_LimitOutOfRange_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> cardCostService.getClearingCostChanges(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> cardCostService.getClearingCostChanges(0, 1001));
+        verifyNoInteractions(changeLog);
+    }
+
     @Test
     public void getClearingCost_SuccessfullyRetrieves() {
         ClearingCost clearingCost = new ClearingCost(1L, "US", 5.0);
@@ -233,12 +368,11 @@ class CardCostServiceTest {
     }
 
     @Test
-    public void getCardCost_ValidCardNumber_ReturnsClearingCostDto() throws Exception {
-        int cardNumber = 12345678;
+    public void getCardCost_ValidCardNumber_ReturnsClearingCostDto() {
+        String cardNumber = "12345674";
         String countryCode = "US";
-        ClearingCost clearingCost = new ClearingCost(countryCode, 10.0);
-        when(binlistClient.getCountryAlpha2(cardNumber)).thenReturn(new ResponseEntity<>(countryCode, HttpStatus.OK));
-        when(clearingCostRepository.findByCountryCode(countryCode)).thenReturn(Optional.of(clearingCost));
+        when(binResolver.resolve(12345674)).thenReturn(BinLookupResult.found(countryCode, CardAttributes.UNKNOWN));
+        when(clearingCostTable.cost(countryCode, 10.0)).thenReturn(10.0);
 
         ClearingCostDto result = cardCostService.getCardCost(cardNumber);
 
@@ -246,10 +380,80 @@ class CardCostServiceTest {
         assertEquals(10.0, result.getCost());
     }
 
+    @Test
+    public void getCardCost_SixteenDigitCardNumber_ResolvesEightDigitBin() {
+        when(binResolver.resolve(45717360)).thenReturn(BinLookupResult.found("GR", CardAttributes.UNKNOWN));
+        when(clearingCostTable.cost("GR", 10.0)).thenReturn(15.0);
+
+        ClearingCostDto result = cardCostService.getCardCost("4571736000000000");
+
+        assertEquals("GR", result.getCountryCode());
+        assertEquals(15.0, result.getCost());
+    }
+
+    @Test
+    public void getCardCost_AsOf_PricesWithCostInForceAtThatInstant() {
+        Instant asOf = Instant.parse("2025-06-30T12:00:00Z");
+        when(binResolver.resolve(45717360)).thenReturn(BinLookupResult.found("GR", CardAttributes.UNKNOWN));
+        when(clearingCostHistory.cost("GR", asOf, 10.0)).thenReturn(12.0);
+
+        ClearingCostDto result = cardCostService.getCardCost("4571736000000000", asOf);
+
+        assertEquals(12.0, result.getCost());
+        verify(clearingCostTable, never()).cost(any(), anyDouble());
+    }
+
+    @Test
+    public void getCardCost_MatchingRule_TakesPrecedenceOverCountryCost() {
+        int attributes = CardAttributes.of(CardAttributes.Scheme.AMEX, CardAttributes.Type.CREDIT, false);
+        when(binResolver.resolve(45717360)).thenReturn(BinLookupResult.found("GR", attributes));
+        when(clearingCostRules.cost("GR", attributes)).thenReturn(25.0);
+
+        ClearingCostDto result = cardCostService.getCardCost("4571736000000000");
+
+        assertEquals(25.0, result.getCost());
+        verify(clearingCostTable, never()).cost(any(), anyDouble());
+    }
+
+    @Test
+    public void createClearingCostRule_NormalizesAndRecompilesRules() {
+        when(clearingCostRuleRepository.save(any(ClearingCostRule.class))).thenAnswer(invocation -> {
+            ClearingCostRule rule = invocation.getArgument(0);
+            rule.setId(7L);
+            return rule;
+        });
+        ClearingCostRuleDto result = cardCostService.createClearingCostRule(
+                new ClearingCostRuleDto(null, null, "visa", "debit", null, 3.0, null));
+
+        assertEquals(new ClearingCostRuleDto(7L, null, "VISA", "DEBIT", null, 3.0, 0), result);
+        verify(clearingCostRevisions).increment(1);
+        verify(clearingCostRules).update();
+    }
+
+    @Test
+    public void createClearingCostRule_UnknownSchemeOrType_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> cardCostService.createClearingCostRule(
+                new ClearingCostRuleDto(null, "GR", "bogus", null, null, 3.0, 0)));
+        assertThrows(IllegalArgumentException.class, () -> cardCostService.createClearingCostRule(
+                new ClearingCostRuleDto(null, "GR", null, "charge", null, 3.0, 0)));
+        assertThrows(IllegalArgumentException.class, () -> cardCostService.createClearingCostRule(
+                new ClearingCostRuleDto(null, "GR", null, null, true, null, 0)));
+        verify(clearingCostRuleRepository, never()).save(any());
+    }
+
+    @Test
+    public void deleteClearingCostRule_UnknownId_ThrowsNotFoundException() {
+        when(clearingCostRuleRepository.findById(9L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> cardCostService.deleteClearingCostRule(9L));
+        verify(clearingCostRules, never()).update();
+        verifyNoInteractions(clearingCostRevisions);
+    }
+
     @Test
     public void getCardCost_CardNumberNotFound_ThrowsNotFoundException() {
-        int cardNumber = 12345678;
-        when(binlistClient.getCountryAlpha2(cardNumber)).thenReturn(new ResponseEntity<>("Country not found", HttpStatus.NOT_FOUND));
+        String cardNumber = "12345674";
+        when(binResolver.resolve(12345674)).thenReturn(BinLookupResult.COUNTRY_NOT_FOUND);
 
         assertThrows(NotFoundException.class, () -> {
             cardCostService.getCardCost(cardNumber);
@@ -258,14 +462,48 @@ class CardCostServiceTest {
 
     @Test
     public void getCardCost_TooManyRequests_ThrowsTooManyRequestsException() {
-        int cardNumber = 12345678;
-        when(binlistClient.getCountryAlpha2(cardNumber)).thenReturn(new ResponseEntity<>("Too many requests", HttpStatus.TOO_MANY_REQUESTS));
+        String cardNumber = "12345674";
+        when(binResolver.resolve(12345674)).thenReturn(BinLookupResult.throttled("Too many requests"));
 
         assertThrows(TooManyRequestsException.class, () -> {
             cardCostService.getCardCost(cardNumber);
         });
     }
 
+    @Test
+    public void getCardCost_LookupFailed_ThrowsStacklessBinLookupException() {
+        when(binResolver.resolve(12345674)).thenReturn(BinLookupResult.failed("503 Service Unavailable"));
+
+        BinLookupException exception = assertThrows(BinLookupException.class, () -> {
+            cardCostService.getCardCost("12345674");
+        });
+
+        assertEquals("An error occurred. Error: 503 Service Unavailable", exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
+    @Test
+    public void resolveCardCost_Throttled_ReturnsErrorWithoutThrowing() {
+        when(binResolver.resolve(12345674)).thenReturn(BinLookupResult.TOO_MANY_REQUESTS);
+
+        CardCostResultDto first = cardCostService.resolveCardCost("12345674", null);
+        CardCostResultDto second = cardCostService.resolveCardCost("12345674", null);
+
+        assertEquals(429, first.getStatus());
+        assertEquals("Too many requests. Error: 429 Too Many Requests", first.getError());
+        assertSame(first.getError(), second.getError());
+        verify(cardCostMetrics, times(2)).recordOutcome(429, null);
+    }
+
+    @Test
+    public void resolveCardCost_InvalidCardNumber_ReturnsBadRequest() {
+        CardCostResultDto result = cardCostService.resolveCardCost("1234567", null);
+
+        assertEquals(400, result.getStatus());
+        assertNotNull(result.getError());
+        verifyNoInteractions(binResolver);
+    }
+
     @Test
     public void getCardCost_NullCardNumber_ThrowsIllegalArgumentException() {
         assertThrows(IllegalArgumentException.class, () -> {
@@ -275,11 +513,80 @@ class CardCostServiceTest {
 
     @Test
     public void getCardCost_InvalidCardNumberLength_ThrowsIllegalArgumentException() {
-        int shortCardNumber = 1234567;
+        String shortCardNumber = "1234567";
 
         assertThrows(IllegalArgumentException.class, () -> {
             cardCostService.getCardCost(shortCardNumber);
         });
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getCardCost_InvalidCheckDigit_ThrowsIllegalArgumentException() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            cardCostService.getCardCost("4571736000000001");
+        });
+
+        assertEquals("Card number failed the Luhn check.", exception.getMessage());
+        verifyNoInteractions(binResolver);
+    }
+
+    @Test
+    public void getCardCost_NonDigitCharacters_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            cardCostService.getCardCost("4571 7360 0000 0000");
+        });
+    }
+
+    @Test
+    public void getCardCosts_MixedCards_ReturnsPerItemResults() {
+        when(binResolver.resolveAll(Set.of(45717360, 12345674))).thenReturn(Map.of(
+                45717360, BinLookupResult.found("GR", CardAttributes.UNKNOWN),
+                12345674, BinLookupResult.throttled("Too many requests")));
+        when(clearingCostTable.cost("GR", 10.0)).thenReturn(15.0);
+
+        List<CardCostResultDto> results = cardCostService.getCardCosts(
+                Arrays.asList("45717360", "4571736000000000", "12345674", "1234567", null, "12345678"));
+
+        assertEquals(6, results.size());
+        assertEquals("4571****", results.get(0).getCardNumber());
+        assertEquals("45717360****0000", results.get(1).getCardNumber());
+        assertEquals("1234****", results.get(5).getCardNumber());
+        assertEquals("GR", results.get(0).getCountryCode());
+        assertEquals(15.0, results.get(0).getCost());
+        assertEquals(200, results.get(1).getStatus());
+        assertEquals(15.0, results.get(1).getCost());
+        assertEquals(429, results.get(2).getStatus());
+        assertEquals(400, results.get(3).getStatus());
+        assertEquals(400, results.get(4).getStatus());
+        assertEquals("Card number failed the Luhn check.", results.get(5).getError());
+        verify(binResolver, never()).resolve(anyInt());
+    }
+
+    @Test
+    public void getCardCosts_EmptyBatch_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            cardCostService.getCardCosts(List.of());
+        });
+    }
+
+    @Test
+    public void getCardCostResult_ValidCardNumber_ResolvesAsynchronously() {
+        when(binResolver.resolveAsync(45717360))
+                .thenReturn(CompletableFuture.completedFuture(BinLookupResult.found("US", CardAttributes.UNKNOWN)));
+        when(clearingCostTable.cost("US", 10.0)).thenReturn(5.0);
+
+        CardCostResultDto result = cardCostService.getCardCostResult("45717360").join();
+
+        assertEquals(200, result.getStatus());
+        assertEquals(5.0, result.getCost());
+    }
+
+    @Test
+    public void getCardCostResult_InvalidCardNumber_CompletesWithBadRequest() {
+        CardCostResultDto result = cardCostService.getCardCostResult("1234567").join();
+
+        assertEquals(400, result.getStatus());
+        verifyNoInteractions(binResolver);
+    }
+
+}
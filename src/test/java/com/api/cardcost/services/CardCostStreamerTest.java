@@ -0,0 +1,84 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.dtos.CardCostResultDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardCostStreamerTest {
+
+    @Mock
+    private CardCostService cardCostService;
+
+    @Test
+    void stream_WritesOneResultPerLineInInputOrder() throws Exception {
+        CompletableFuture<CardCostResultDto> slow = new CompletableFuture<>();
+        when(cardCostService.getCardCostResult("45717360")).thenReturn(slow);
+        when(cardCostService.getCardCostResult("12345674")).thenReturn(CompletableFuture.completedFuture(
+                new CardCostResultDto("12345674", "GR", 15.0, 200, null)));
+        when(cardCostService.getCardCostResult("abc")).thenReturn(CompletableFuture.completedFuture(
+                new CardCostResultDto(null, null, null, 400, "Card number must have between 8 and 19 digits.")));
+        slow.complete(new CardCostResultDto("45717360", "US", 5.0, 200, null));
+
+        String output = stream(new CardCostStreamer(cardCostService, new ObjectMapper(), 2),
+                "45717360\n\n12345674\nabc\n");
+
+        String[] lines = output.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("{\"cardNumber\":\"45717360\",\"countryCode\":\"US\",\"cost\":5.0,\"status\":200}", lines[0]);
+        assertEquals("{\"cardNumber\":\"12345674\",\"countryCode\":\"GR\",\"cost\":15.0,\"status\":200}", lines[1]);
+        assertEquals("{\"status\":400,\"error\":\"Card number must have between 8 and 19 digits.\"}", lines[2]);
+    }
+
+    @Test
+    void stream_WindowFull_StopsReadingUntilOldestResultIsWritten() throws Exception {
+        List<CompletableFuture<CardCostResultDto>> pending = new CopyOnWriteArrayList<>();
+        when(cardCostService.getCardCostResult(anyString())).thenAnswer(invocation -> {
+            CompletableFuture<CardCostResultDto> result = new CompletableFuture<>();
+            pending.add(result);
+            return result;
+        });
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            input.append(45717300 + i).append('\n');
+        }
+        CardCostStreamer streamer = new CardCostStreamer(cardCostService, new ObjectMapper(), 4);
+
+        CompletableFuture<String> output = CompletableFuture.supplyAsync(() -> {
+            try {
+                return stream(streamer, input.toString());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertEquals(4, pending.size());
+
+        while (!output.isDone()) {
+            pending.forEach(result -> result.complete(new CardCostResultDto("45717300", "US", 5.0, 200, null)));
+            Thread.sleep(1);
+        }
+        assertEquals(100, output.get(5, TimeUnit.SECONDS).split("\n").length);
+        assertEquals(100, pending.size());
+    }
+
+    private static String stream(CardCostStreamer streamer, String input) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        streamer.stream(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,129 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.controllers.CardCostController;
+import com.api.cardcost.repositories.ClearingCostRepository;
+import com.api.cardcost.repositories.ClearingCostRuleRepository;
+import com.api.cardcost.services.bin.BinCacheSnapshot;
+import com.api.cardcost.services.bin.BinCountryCache;
+import com.api.cardcost.services.bin.BinCountryStore;
+import com.api.cardcost.services.bin.BinLookupProvider;
+import com.api.cardcost.services.bin.BinProviderChain;
+import com.api.cardcost.services.bin.BinRangeIndex;
+import com.api.cardcost.services.bin.BinResolver;
+import com.api.cardcost.services.bin.CardNumbers;
+import com.api.cardcost.services.bin.CircuitBreaker;
+import com.api.cardcost.services.bin.GuardedBinLookupProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardCostWarmupTest {
+
+    @Mock
+    private ClearingCostTable clearingCostTable;
+
+    @Mock
+    private BinCacheSnapshot binCacheSnapshot;
+
+    @Mock
+    private ClearingCostRepository clearingCostRepository;
+
+    @Mock
+    private ClearingCostHistory clearingCostHistory;
+
+    @Mock
+    private ClearingCostRules clearingCostRules;
+
+    @Mock
+    private ClearingCostRevisions clearingCostRevisions;
+
+    @Mock
+    private ClearingCostChangeLog changeLog;
+
+    @Mock
+    private ClearingCostRuleRepository clearingCostRuleRepository;
+
+    @Mock
+    private BinLookupProvider provider;
+
+    private final SimpleMeterRegistry liveRegistry = new SimpleMeterRegistry();
+
+    private final BinCountryCache binCountryCache = new BinCountryCache(100, Duration.ofHours(1),
+            Duration.ofMinutes(1), Duration.ofDays(1));
+
+    @Test
+    void run_WithRestoredBins_PricesThemOutsideTheLiveBeans() {
+        binCountryCache.putFound(45717360, "DK");
+        binCountryCache.putFound(1234567, "US");
+        when(clearingCostRules.cost(any(), anyInt())).thenReturn(Double.NaN);
+
+        warmup(true).run(null);
+
+        verify(clearingCostTable).reload();
+        verify(binCacheSnapshot).load();
+        verify(clearingCostTable, atLeast(16)).cost(eq("DK"), anyDouble());
+        verify(clearingCostTable, atLeast(16)).cost(eq("US"), anyDouble());
+        assertEquals(0, binCountryCache.hitCount());
+        assertEquals(0, binCountryCache.missCount());
+        assertEquals(2, binCountryCache.size());
+        assertEquals(0, liveRegistry.find("cardcost.pricing.stage").timers().stream().mapToLong(Timer::count).sum());
+        verify(provider, never()).lookup(anyInt());
+        verify(provider, never()).lookupAsync(anyInt());
+    }
+
+    @Test
+    void run_WithoutCachedBins_OnlyLoadsData() {
+        warmup(true).run(null);
+
+        verify(clearingCostTable).reload();
+        verify(binCacheSnapshot).load();
+        verifyNoMoreInteractions(clearingCostTable);
+        verifyNoInteractions(clearingCostRules);
+    }
+
+    @Test
+    void run_Disabled_DoesNothing() {
+        warmup(false).run(null);
+
+        verifyNoInteractions(clearingCostTable, binCacheSnapshot, clearingCostRules);
+    }
+
+    @Test
+    void cardNumber_IsLuhnValidAndKeepsTheBin() {
+        assertEquals(45717360, CardNumbers.parseBin(CardCostWarmup.cardNumber(45717360)));
+        assertEquals(1234567, CardNumbers.parseBin(CardCostWarmup.cardNumber(1234567)));
+        assertEquals(16, CardCostWarmup.cardNumber(1234567).length());
+    }
+
+    private CardCostWarmup warmup(boolean enabled) {
+        BinRangeIndex binRangeIndex = new BinRangeIndex(new ByteArrayResource(new byte[0]));
+        binRangeIndex.init();
+        when(provider.name()).thenReturn("binlist");
+        BinResolver binResolver = new BinResolver(binRangeIndex, binCountryCache,
+                new BinCountryStore(binCountryCache, "", Duration.ofDays(1), Duration.ofDays(7), 2.0),
+                new BinProviderChain(List.of(new GuardedBinLookupProvider(provider,
+                        new CircuitBreaker(1, Duration.ofHours(1)), null, liveRegistry)), false, Duration.ZERO), null);
+        CardCostService cardCostService = new CardCostService(binResolver, clearingCostRepository,
+                clearingCostTable, clearingCostRevisions, changeLog, clearingCostHistory, clearingCostRuleRepository,
+                clearingCostRules, new CardCostMetrics(liveRegistry), 10.0);
+        CardCostController cardCostController = new CardCostController(cardCostService, null, null, Duration.ZERO);
+        return new CardCostWarmup(clearingCostTable, binCacheSnapshot, binCountryCache, binResolver,
+                cardCostService, cardCostController, new ObjectMapper(), enabled, 32, Duration.ofHours(1));
+    }
+}
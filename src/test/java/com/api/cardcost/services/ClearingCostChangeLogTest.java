@@ -0,0 +1,108 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.dtos.ClearingCostChangeDto;
+import com.api.cardcost.entities.dtos.ClearingCostChangesDto;
+import com.api.cardcost.exceptions.GoneException;
+import com.api.cardcost.repositories.ClearingCostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class ClearingCostChangeLogTest {
+
+    @Autowired
+    private ClearingCostRepository clearingCostRepository;
+
+    private ClearingCostChangeLog changeLog;
+
+    @BeforeEach
+    void setUp() {
+        ClearingCostRevisions revisions = new ClearingCostRevisions(clearingCostRepository);
+        revisions.afterSingletonsInstantiated();
+        changeLog = new ClearingCostChangeLog(revisions, clearingCostRepository, 4);
+    }
+
+    @Test
+    void changesSince_ReturnsChangesInSequenceOrder() {
+        long start = changeLog.lastSequence();
+        changeLog.record(List.of(
+                new ClearingCostChangeLog.Change(ClearingCostChangeLog.Operation.CREATED, "US", 5.0),
+                new ClearingCostChangeLog.Change(ClearingCostChangeLog.Operation.UPDATED, "US", 6.0)));
+        changeLog.record(ClearingCostChangeLog.Operation.DELETED, "US", 6.0);
+
+        ClearingCostChangesDto changes = changeLog.changesSince(start, 10);
+
+        assertEquals(start + 3, changes.getSequence());
+        assertEquals(List.of(
+                new ClearingCostChangeDto(start + 1, "CREATED", "US", 5.0),
+                new ClearingCostChangeDto(start + 2, "UPDATED", "US", 6.0),
+                new ClearingCostChangeDto(start + 3, "DELETED", "US", null)), changes.getChanges());
+    }
+
+    @Test
+    void changesSince_HonoursLimitAndReturnsCursor() {
+        long start = changeLog.lastSequence();
+        changeLog.record(ClearingCostChangeLog.Operation.CREATED, "US", 5.0);
+        changeLog.record(ClearingCostChangeLog.Operation.CREATED, "GR", 15.0);
+
+        ClearingCostChangesDto first = changeLog.changesSince(start, 1);
+        ClearingCostChangesDto second = changeLog.changesSince(first.getSequence(), 1);
+        ClearingCostChangesDto none = changeLog.changesSince(second.getSequence(), 1);
+
+        assertEquals("US", first.getChanges().get(0).getCountryCode());
+        assertEquals("GR", second.getChanges().get(0).getCountryCode());
+        assertEquals(start + 2, none.getSequence());
+        assertTrue(none.getChanges().isEmpty());
+    }
+
+    @Test
+    void changesSince_PrunedOrUnknownSequence_ThrowsGone() {
+        long start = changeLog.lastSequence();
+        for (int i = 0; i < 6; i++) {
+            changeLog.record(ClearingCostChangeLog.Operation.UPDATED, "US", (double) i);
+        }
+
+        assertThrows(GoneException.class, () -> changeLog.changesSince(start, 10));
+        assertThrows(GoneException.class, () -> changeLog.changesSince(start + 1, 10));
+        assertThrows(GoneException.class, () -> changeLog.changesSince(start + 7, 10));
+        assertEquals(4, changeLog.changesSince(start + 2, 10).getChanges().size());
+    }
+
+    @Test
+    void record_NotifiesListenersAfterCommit() {
+        List<Long> notified = new ArrayList<>();
+        changeLog.addListener(notified::add);
+        List<TransactionSynchronization> before = TransactionSynchronizationManager.getSynchronizations();
+
+        long sequence = changeLog.record(ClearingCostChangeLog.Operation.CREATED, "DK", 7.0);
+        assertTrue(notified.isEmpty());
+
+        TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(synchronization -> !before.contains(synchronization))
+                .forEach(TransactionSynchronization::afterCommit);
+        assertEquals(List.of(sequence), notified);
+    }
+
+    @Test
+    void poll_NotifiesListenersOfWritesFromOtherInstances() {
+        List<Long> notified = new ArrayList<>();
+        changeLog.addListener(notified::add);
+        changeLog.poll();
+        notified.clear();
+
+        long sequence = clearingCostRepository.incrementRevision(2);
+        changeLog.poll();
+        changeLog.poll();
+
+        assertEquals(List.of(sequence), notified);
+    }
+}
@@ -0,0 +1,111 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.ClearingCostVersion;
+import com.api.cardcost.repositories.ClearingCostRepository;
+import com.api.cardcost.repositories.ClearingCostVersionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ClearingCostHistoryTest {
+
+    private static final Instant JANUARY = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant MARCH = Instant.parse("2026-03-01T00:00:00Z");
+    private static final Instant NOW = Instant.parse("2026-06-01T00:00:00Z");
+
+    @Mock
+    private ClearingCostVersionRepository versionRepository;
+
+    @Mock
+    private ClearingCostRepository clearingCostRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ClearingCostHistory history;
+
+    @BeforeEach
+    void setup() {
+        when(versionRepository.findAllByOrderByValidFromAscIdAsc()).thenReturn(List.of(
+                new ClearingCostVersion("GR", 12.0, JANUARY),
+                new ClearingCostVersion("GR", 15.0, MARCH),
+                new ClearingCostVersion("FR", 10.0, JANUARY),
+                new ClearingCostVersion("FR", null, MARCH)));
+        when(clearingCostRepository.findAllCosts()).thenReturn(Map.of("GR", 15.0, "US", 5.0));
+        history = new ClearingCostHistory(versionRepository, clearingCostRepository, transactionManager,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+        history.afterSingletonsInstantiated();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void cost_ReturnsVersionInForceAtInstant() {
+        assertEquals(99.0, history.cost("GR", JANUARY.minusMillis(1), 99.0));
+        assertEquals(12.0, history.cost("GR", JANUARY, 99.0));
+        assertEquals(12.0, history.cost("GR", MARCH.minusMillis(1), 99.0));
+        assertEquals(15.0, history.cost("GR", MARCH, 99.0));
+        assertEquals(15.0, history.cost("GR", NOW, 99.0));
+    }
+
+    @Test
+    void cost_AfterDeletionOrUnknownCountry_ReturnsDefault() {
+        assertEquals(10.0, history.cost("FR", JANUARY.plusSeconds(1), 99.0));
+        assertEquals(99.0, history.cost("FR", NOW, 99.0));
+        assertEquals(99.0, history.cost("DK", NOW, 99.0));
+        assertEquals(99.0, history.cost(null, NOW, 99.0));
+    }
+
+    @Test
+    void afterSingletonsInstantiated_BackfillsUnversionedCountriesSinceEpoch() {
+        verify(clearingCostRepository).insertVersions(Map.of("US", 5.0), Instant.EPOCH);
+        verify(transactionManager).commit(any());
+        assertEquals(5.0, history.cost("US", Instant.EPOCH, 99.0));
+    }
+
+    @Test
+    void record_InsertsInCallerTransactionAndPublishesAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        history.record("GR", 18.0);
+        Map<String, Double> deleted = new HashMap<>();
+        deleted.put("US", null);
+        history.recordAll(deleted);
+
+        verify(clearingCostRepository).insertVersions(Map.of("GR", 18.0), NOW);
+        verify(clearingCostRepository).insertVersions(deleted, NOW);
+        verify(transactionManager, times(1)).getTransaction(any());
+        assertEquals(15.0, history.cost("GR", NOW, 99.0));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(18.0, history.cost("GR", NOW, 99.0));
+        assertEquals(15.0, history.cost("GR", NOW.minusMillis(1), 99.0));
+        assertEquals(99.0, history.cost("US", NOW, 99.0));
+        assertEquals(5.0, history.cost("US", NOW.minusMillis(1), 99.0));
+    }
+}
@@ -0,0 +1,48 @@
+package com.api.cardcost.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClearingCostReloaderTest {
+
+    @Mock
+    private ClearingCostRevisions clearingCostRevisions;
+
+    @Mock
+    private ClearingCostTable clearingCostTable;
+
+    @Mock
+    private ClearingCostRules clearingCostRules;
+
+    @Mock
+    private ClearingCostHistory clearingCostHistory;
+
+    private ClearingCostReloader reloader;
+
+    @BeforeEach
+    void setup() {
+        reloader = new ClearingCostReloader(clearingCostRevisions, clearingCostTable, clearingCostRules,
+                clearingCostHistory);
+    }
+
+    @Test
+    void reloadIfChanged_ReloadsOnlyWhenTheRevisionMoved() {
+        when(clearingCostRevisions.current()).thenReturn(new ClearingCostRevisions.Revision(1, 3),
+                new ClearingCostRevisions.Revision(1, 3), new ClearingCostRevisions.Revision(1, 5));
+
+        reloader.reloadIfChanged();
+        reloader.reloadIfChanged();
+        verify(clearingCostTable, times(1)).reload();
+
+        reloader.reloadIfChanged();
+        verify(clearingCostTable, times(2)).reload();
+        verify(clearingCostRules, times(2)).reload();
+        verify(clearingCostHistory, times(2)).reload();
+    }
+}
@@ -0,0 +1,53 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.dtos.ClearingCostRuleDto;
+import com.api.cardcost.services.bin.CardAttributes;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:clearing-cost-rules-concurrency-test",
+        "cardcost.warmup.enabled=false"
+})
+class ClearingCostRulesConcurrencyTest {
+
+    @Autowired
+    private CardCostService cardCostService;
+
+    @Autowired
+    private ClearingCostRules clearingCostRules;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void createClearingCostRule_ConcurrentWritesBothSurvive() throws Exception {
+        // Both transactions are open before either writes; the revision row lock then orders the writes.
+        CyclicBarrier bothOpen = new CyclicBarrier(2);
+        CompletableFuture<Void> portugal = CompletableFuture.runAsync(() -> createRule("PT", 11.0, bothOpen));
+        CompletableFuture<Void> spain = CompletableFuture.runAsync(() -> createRule("ES", 12.0, bothOpen));
+        CompletableFuture.allOf(portugal, spain).get(30, TimeUnit.SECONDS);
+
+        assertEquals(11.0, clearingCostRules.cost("PT", CardAttributes.UNKNOWN));
+        assertEquals(12.0, clearingCostRules.cost("ES", CardAttributes.UNKNOWN));
+    }
+
+    private void createRule(String countryCode, double cost, CyclicBarrier bothOpen) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try {
+                bothOpen.await(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            cardCostService.createClearingCostRule(new ClearingCostRuleDto(null, countryCode, null, null, null, cost, 0));
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.ClearingCostRule;
+import com.api.cardcost.repositories.ClearingCostRuleRepository;
+import com.api.cardcost.services.bin.CardAttributes;
+import com.api.cardcost.services.bin.CardAttributes.Scheme;
+import com.api.cardcost.services.bin.CardAttributes.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ClearingCostRulesTest {
+
+    @Mock
+    private ClearingCostRuleRepository clearingCostRuleRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ClearingCostRules clearingCostRules;
+
+    @BeforeEach
+    void setup() {
+        when(clearingCostRuleRepository.findAll()).thenReturn(List.of(
+                new ClearingCostRule(1L, null, "AMEX", null, null, 20.0, 0),
+                new ClearingCostRule(2L, "GR", null, "CREDIT", null, 18.0, 0),
+                new ClearingCostRule(3L, "GR", "VISA", "CREDIT", null, 16.0, 0),
+                new ClearingCostRule(4L, null, null, null, true, 30.0, 5),
+                new ClearingCostRule(5L, "US", null, null, null, 4.0, 0)));
+        clearingCostRules = new ClearingCostRules(clearingCostRuleRepository, transactionManager);
+        clearingCostRules.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void cost_MoreSpecificRuleWinsAtEqualPriority() {
+        assertEquals(16.0, clearingCostRules.cost("GR", CardAttributes.of(Scheme.VISA, Type.CREDIT, false)));
+        assertEquals(18.0, clearingCostRules.cost("GR", CardAttributes.of(Scheme.MASTERCARD, Type.CREDIT, null)));
+        assertEquals(18.0, clearingCostRules.cost("GR", CardAttributes.of(Scheme.AMEX, Type.CREDIT, null)));
+        assertEquals(20.0, clearingCostRules.cost("GR", CardAttributes.of(Scheme.AMEX, Type.DEBIT, null)));
+    }
+
+    @Test
+    void cost_HigherPriorityWinsOverSpecificity() {
+        assertEquals(30.0, clearingCostRules.cost("GR", CardAttributes.of(Scheme.VISA, Type.CREDIT, true)));
+        assertEquals(30.0, clearingCostRules.cost("US", CardAttributes.of(Scheme.UNKNOWN, Type.UNKNOWN, true)));
+    }
+
+    @Test
+    void cost_CountriesWithoutRulesUseRulesForAnyCountry() {
+        assertEquals(20.0, clearingCostRules.cost("FR", CardAttributes.of(Scheme.AMEX, Type.UNKNOWN, null)));
+        assertEquals(4.0, clearingCostRules.cost("US", CardAttributes.UNKNOWN));
+        assertTrue(Double.isNaN(clearingCostRules.cost("FR", CardAttributes.UNKNOWN)));
+        assertTrue(Double.isNaN(clearingCostRules.cost("GR", CardAttributes.of(Scheme.VISA, Type.DEBIT, false))));
+        assertTrue(Double.isNaN(clearingCostRules.cost(null, CardAttributes.UNKNOWN)));
+    }
+
+    @Test
+    void update_RecompilesCommittedRulesAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            clearingCostRules.update();
+            when(clearingCostRuleRepository.findAll())
+                    .thenReturn(List.of(new ClearingCostRule(6L, "FR", null, null, null, 11.0, 0)));
+
+            assertTrue(Double.isNaN(clearingCostRules.cost("FR", CardAttributes.UNKNOWN)));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(11.0, clearingCostRules.cost("FR", CardAttributes.UNKNOWN));
+        assertTrue(Double.isNaN(clearingCostRules.cost("US", CardAttributes.UNKNOWN)));
+    }
+}
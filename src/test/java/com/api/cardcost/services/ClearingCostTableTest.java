@@ -0,0 +1,72 @@
+package com.api.cardcost.services;
+
+import com.api.cardcost.entities.ClearingCost;
+import com.api.cardcost.repositories.ClearingCostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ClearingCostTableTest {
+
+    @Mock
+    private ClearingCostRepository clearingCostRepository;
+
+    private ClearingCostTable clearingCostTable;
+
+    @BeforeEach
+    void setup() {
+        when(clearingCostRepository.findAll()).thenReturn(List.of(
+                new ClearingCost(1L, "US", 5.0),
+                new ClearingCost(2L, "GR", 15.0)));
+        clearingCostTable = new ClearingCostTable(clearingCostRepository);
+        clearingCostTable.afterSingletonsInstantiated();
+    }
+
+    @Test
+    void cost_LoadedCountry_ReturnsStoredCost() {
+        assertEquals(5.0, clearingCostTable.cost("US", 10.0));
+        assertEquals(15.0, clearingCostTable.cost("GR", 10.0));
+    }
+
+    @Test
+    void cost_UnknownOrInvalidCountry_ReturnsDefault() {
+        assertEquals(10.0, clearingCostTable.cost("FR", 10.0));
+        assertEquals(10.0, clearingCostTable.cost("USA", 10.0));
+        assertEquals(10.0, clearingCostTable.cost(null, 10.0));
+        assertEquals(10.0, clearingCostTable.cost("ÜS", 10.0));
+    }
+
+    @Test
+    void putAndRemove_WithoutTransaction_PublishImmediately() {
+        clearingCostTable.put("FR", 12.0);
+        clearingCostTable.remove("US");
+
+        assertEquals(12.0, clearingCostTable.cost("FR", 10.0));
+        assertEquals(10.0, clearingCostTable.cost("US", 10.0));
+    }
+
+    @Test
+    void put_InsideTransaction_PublishesAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            clearingCostTable.put("US", 7.0);
+
+            assertEquals(5.0, clearingCostTable.cost("US", 10.0));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(7.0, clearingCostTable.cost("US", 10.0));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.api.cardcost.services.bin;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinCacheSnapshotTest {
+
+    private static final Instant SHUTDOWN = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void saveAndLoad_RestoresFoundEntriesWithTheirAge() {
+        Path location = tempDir.resolve("snapshot.csv");
+        BinCountryCache previous = cache();
+        previous.putFound(45717360, "DK");
+        previous.putNotFound(12345678);
+        nanos.addAndGet(Duration.ofMinutes(30).toNanos());
+        int attributes = CardAttributes.of(CardAttributes.Scheme.AMEX, CardAttributes.Type.CREDIT, null);
+        previous.putFound(40000000, "US", attributes);
+
+        new BinCacheSnapshot(previous, location.toString(), 100, Clock.fixed(SHUTDOWN, ZoneOffset.UTC)).save();
+
+        BinCountryCache restored = cache();
+        Clock restart = Clock.fixed(SHUTDOWN.plus(Duration.ofMinutes(20)), ZoneOffset.UTC);
+        assertEquals(2, new BinCacheSnapshot(restored, location.toString(), 100, restart).load());
+        assertEquals("DK", restored.peek(45717360).countryCode());
+        assertEquals("US", restored.peek(40000000).countryCode());
+        assertEquals(attributes, restored.peek(40000000).attributes());
+        assertNull(restored.peek(12345678));
+
+        nanos.addAndGet(Duration.ofMinutes(15).toNanos());
+
+        assertNull(restored.peek(45717360));
+        assertEquals("DK", restored.getStale(45717360).countryCode());
+        assertEquals("US", restored.peek(40000000).countryCode());
+    }
+
+    @Test
+    void load_SkipsInvalidLinesAndHonoursMaximumEntries() throws Exception {
+        Path location = tempDir.resolve("snapshot.csv");
+        long storedAt = SHUTDOWN.toEpochMilli();
+        Files.write(location, List.of("45717360,DK," + storedAt, "garbage", "abc,US," + storedAt,
+                "40000000,US," + storedAt, "41000000,GR," + storedAt));
+        BinCountryCache cache = cache();
+
+        int loaded = new BinCacheSnapshot(cache, location.toString(), 2, Clock.fixed(SHUTDOWN, ZoneOffset.UTC)).load();
+
+        assertEquals(2, loaded);
+        assertNotNull(cache.peek(45717360));
+        assertNotNull(cache.peek(40000000));
+        assertNull(cache.peek(41000000));
+    }
+
+    @Test
+    void load_MissingFile_LoadsNothing() {
+        BinCountryCache cache = cache();
+
+        assertEquals(0, new BinCacheSnapshot(cache, tempDir.resolve("missing.csv").toString(), 100).load());
+        assertEquals(0, new BinCacheSnapshot(cache, "", 100).load());
+    }
+
+    private BinCountryCache cache() {
+        return new BinCountryCache(100, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofDays(1), ticker);
+    }
+}
@@ -0,0 +1,66 @@
+package com.api.cardcost.services.bin;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinCountryCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+
+    @Test
+    void putNotFound_ExpiresBeforeFoundEntries() {
+        BinCountryCache cache = new BinCountryCache(100, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofDays(1), ticker);
+        cache.putFound(45717360, "DK");
+        cache.putNotFound(12345678);
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        assertEquals("DK", cache.get(45717360).countryCode());
+        assertNull(cache.get(12345678));
+    }
+
+    @Test
+    void putFound_ExpiresAfterTtl() {
+        BinCountryCache cache = new BinCountryCache(100, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofDays(1), ticker);
+        cache.putFound(45717360, "DK");
+
+        nanos.addAndGet(Duration.ofHours(2).toNanos());
+
+        assertNull(cache.get(45717360));
+    }
+
+    @Test
+    void get_RecordsHitsAndMisses() {
+        BinCountryCache cache = new BinCountryCache(100, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofDays(1), ticker);
+        cache.putNotFound(12345678);
+
+        assertFalse(cache.get(12345678).found());
+        assertNull(cache.get(45717360));
+
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void getStale_AfterTtl_ReturnsFoundEntryUntilStaleTtl() {
+        BinCountryCache cache = new BinCountryCache(100, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofDays(1), ticker);
+        cache.putFound(45717360, "DK");
+        cache.putNotFound(12345678);
+
+        nanos.addAndGet(Duration.ofHours(2).toNanos());
+
+        assertNull(cache.peek(45717360));
+        assertEquals("DK", cache.getStale(45717360).countryCode());
+        assertNull(cache.getStale(12345678));
+
+        nanos.addAndGet(Duration.ofDays(1).toNanos());
+
+        assertNull(cache.getStale(45717360));
+    }
+}
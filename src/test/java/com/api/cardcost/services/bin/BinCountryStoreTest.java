@@ -0,0 +1,119 @@
+package com.api.cardcost.services.bin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinCountryStoreTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Duration RETENTION = Duration.ofDays(1);
+    private static final int VISA_CREDIT = CardAttributes.of(CardAttributes.Scheme.VISA, CardAttributes.Type.CREDIT,
+            false);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void init_ReplaysAppendedBinsIntoCache_LatestRecordWins() {
+        Path location = tempDir.resolve("bins.dat");
+        BinCountryStore previous = store(location, new BinCountryCache(100, Duration.ofHours(1),
+                Duration.ofMinutes(1), RETENTION), NOW);
+        previous.append(45717360, "DK", CardAttributes.UNKNOWN);
+        previous.append(40000000, "US", CardAttributes.UNKNOWN);
+        previous.append(45717360, "GR", VISA_CREDIT);
+        previous.close();
+
+        BinCountryCache cache = cache();
+        BinCountryStore restarted = store(location, cache, NOW.plusSeconds(60));
+        restarted.init();
+
+        assertEquals(3 * BinCountryStore.RECORD_BYTES, location.toFile().length());
+        assertEquals(3, restarted.records());
+        assertEquals("GR", cache.peek(45717360).countryCode());
+        assertEquals(VISA_CREDIT, cache.peek(45717360).attributes());
+        assertEquals("US", cache.peek(40000000).countryCode());
+    }
+
+    @Test
+    void init_SkipsExpiredRecordsAndTruncatedTail() throws Exception {
+        Path location = tempDir.resolve("bins.dat");
+        BinCountryStore old = store(location, cache(), NOW.minus(RETENTION).minusSeconds(1));
+        old.append(45717360, "DK", CardAttributes.UNKNOWN);
+        old.close();
+        BinCountryStore recent = store(location, cache(), NOW);
+        recent.append(40000000, "US", CardAttributes.UNKNOWN);
+        recent.close();
+        Files.write(location, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+
+        BinCountryCache cache = cache();
+        store(location, cache, NOW).init();
+
+        assertNull(cache.getStale(45717360));
+        assertEquals("US", cache.peek(40000000).countryCode());
+    }
+
+    @Test
+    void compact_KeepsOnlyLatestRecordPerBin() {
+        Path location = tempDir.resolve("bins.dat");
+        BinCountryStore store = store(location, cache(), NOW);
+        for (int i = 0; i < 2000; i++) {
+            store.append(40000000 + i % 10, i % 2 == 0 ? "US" : "DK", CardAttributes.UNKNOWN);
+        }
+
+        store.flush();
+        store.compactIfNeeded();
+        store.append(40000000, "GR", CardAttributes.UNKNOWN);
+        store.flush();
+
+        assertEquals(11, store.records());
+        assertEquals(11 * BinCountryStore.RECORD_BYTES, location.toFile().length());
+        store.close();
+        BinCountryCache cache = cache();
+        store(location, cache, NOW).init();
+        assertEquals("GR", cache.peek(40000000).countryCode());
+        assertEquals("DK", cache.peek(40000001).countryCode());
+    }
+
+    @Test
+    void append_IsWrittenByWriterThread_WhichStopsOnClose() {
+        Path location = tempDir.resolve("bins.dat");
+        BinCountryStore store = store(location, cache(), NOW);
+
+        store.append(45717360, "DK", CardAttributes.UNKNOWN);
+        Thread writer = Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("bin-store-writer"))
+                .findFirst().orElseThrow();
+        store.close();
+
+        assertFalse(writer.isAlive());
+        assertEquals(1, store.records());
+        assertEquals(BinCountryStore.RECORD_BYTES, location.toFile().length());
+    }
+
+    @Test
+    void append_WithoutLocation_IsDisabled() {
+        BinCountryStore store = new BinCountryStore(cache(), "", RETENTION, 2.0, Clock.systemUTC());
+        store.init();
+        store.append(45717360, "DK", CardAttributes.UNKNOWN);
+
+        assertEquals(0, store.records());
+    }
+
+    private static BinCountryCache cache() {
+        return new BinCountryCache(100, Duration.ofHours(1), Duration.ofMinutes(1), RETENTION);
+    }
+
+    private static BinCountryStore store(Path location, BinCountryCache cache, Instant now) {
+        return new BinCountryStore(cache, location.toString(), RETENTION, 2.0, Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,143 @@
+package com.api.cardcost.services.bin;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinProviderChainTest {
+
+    private static final int BIN = 45717360;
+
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    @AfterEach
+    void stopServers() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    void lookup_PrimaryFails_FallsThroughToSecondary() throws IOException {
+        StubProvider primary = stub(503, "", Duration.ZERO);
+        StubProvider secondary = stub(200, "{\"country\":{\"alpha2\":\"DK\"}}", Duration.ZERO);
+        BinProviderChain chain = chain(false, Duration.ofMillis(200), primary, secondary);
+
+        BinLookupResult result = chain.lookup(BIN);
+
+        assertTrue(result.isFound());
+        assertEquals("DK", result.countryCode());
+        assertEquals(1, primary.calls.get());
+        assertEquals(1, secondary.calls.get());
+    }
+
+    @Test
+    void lookup_PrimaryNotFound_DoesNotAskSecondary() throws IOException {
+        StubProvider primary = stub(200, "{\"scheme\":\"visa\"}", Duration.ZERO);
+        StubProvider secondary = stub(200, "{\"country\":{\"alpha2\":\"DK\"}}", Duration.ZERO);
+        BinProviderChain chain = chain(false, Duration.ofMillis(200), primary, secondary);
+
+        BinLookupResult result = chain.lookupAsync(BIN).join();
+
+        assertEquals(BinLookupResult.Status.NOT_FOUND, result.status());
+        assertEquals(0, secondary.calls.get());
+    }
+
+    @Test
+    void lookup_PrimaryExceedsItsTimeout_FallsThroughToSecondary() throws IOException {
+        StubProvider primary = stub(200, "{\"country\":{\"alpha2\":\"GR\"}}", Duration.ofSeconds(2));
+        StubProvider secondary = stub(200, "{\"country\":{\"alpha2\":\"DK\"}}", Duration.ZERO);
+        BinProviderChain chain = new BinProviderChain(List.of(
+                guarded(primary.provider("primary", Duration.ofMillis(100))),
+                guarded(secondary.provider("secondary", Duration.ofSeconds(2)))), false, Duration.ofMillis(200));
+
+        BinLookupResult result = chain.lookup(BIN);
+
+        assertEquals("DK", result.countryCode());
+    }
+
+    @Test
+    void lookupAsync_SlowPrimary_IsHedgedToSecondary() throws IOException {
+        StubProvider primary = stub(200, "{\"country\":{\"alpha2\":\"GR\"}}", Duration.ofSeconds(1));
+        StubProvider secondary = stub(200, "{\"country\":{\"alpha2\":\"DK\"}}", Duration.ZERO);
+        BinProviderChain chain = chain(true, Duration.ofMillis(50), primary, secondary);
+
+        long start = System.nanoTime();
+        BinLookupResult result = chain.lookupAsync(BIN).join();
+
+        assertEquals("DK", result.countryCode());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(1)) < 0);
+        assertEquals(1, chain.hedgedLookups());
+    }
+
+    @Test
+    void lookupAsync_FastPrimary_IsNotHedged() throws IOException {
+        StubProvider primary = stub(200, "{\"country\":{\"alpha2\":\"GR\"}}", Duration.ZERO);
+        StubProvider secondary = stub(200, "{\"country\":{\"alpha2\":\"DK\"}}", Duration.ZERO);
+        BinProviderChain chain = chain(true, Duration.ofSeconds(1), primary, secondary);
+
+        BinLookupResult result = chain.lookup(BIN);
+
+        assertEquals("GR", result.countryCode());
+        assertEquals(0, secondary.calls.get());
+        assertEquals(0, chain.hedgedLookups());
+    }
+
+    private BinProviderChain chain(boolean hedging, Duration initialHedgeDelay, StubProvider... stubs) {
+        List<GuardedBinLookupProvider> providers = new ArrayList<>();
+        for (int i = 0; i < stubs.length; i++) {
+            providers.add(guarded(stubs[i].provider("provider-" + i, Duration.ofSeconds(2))));
+        }
+        return new BinProviderChain(providers, hedging, initialHedgeDelay);
+    }
+
+    private static GuardedBinLookupProvider guarded(BinLookupProvider provider) {
+        return new GuardedBinLookupProvider(provider, new CircuitBreaker(5, Duration.ofSeconds(30)), null,
+                new SimpleMeterRegistry());
+    }
+
+    private StubProvider stub(int status, String body, Duration latency) throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latency);
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(bytes);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException ignored) {
+                // the client gave up waiting
+            } finally {
+                exchange.close();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        servers.add(server);
+        return new StubProvider("http://localhost:" + server.getAddress().getPort() + "/", calls);
+    }
+
+    private record StubProvider(String baseUrl, AtomicInteger calls) {
+
+        HttpBinLookupProvider provider(String name, Duration timeout) {
+            return new HttpBinLookupProvider(name, baseUrl, timeout, HttpClient.newHttpClient());
+        }
+    }
+}
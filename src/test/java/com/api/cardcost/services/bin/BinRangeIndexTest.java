@@ -0,0 +1,86 @@
+package com.api.cardcost.services.bin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinRangeIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private BinRangeIndex load(String content) throws IOException {
+        Path file = tempDir.resolve("bin-ranges.csv");
+        Files.writeString(file, content);
+        BinRangeIndex index = new BinRangeIndex(new FileSystemResource(file));
+        index.init();
+        return index;
+    }
+
+    @Test
+    void lookup_SixDigitRange_CoversAllEightDigitBins() throws IOException {
+        BinRangeIndex index = load("457173,457173,DK\n");
+
+        assertEquals("DK", index.lookup(45717300));
+        assertEquals("DK", index.lookup(45717399));
+        assertNull(index.lookup(45717400));
+        assertNull(index.lookup(45717299));
+    }
+
+    @Test
+    void lookup_NestedEightDigitRange_OverridesWiderRange() throws IOException {
+        BinRangeIndex index = load("""
+                # comment
+                400000,499999,US
+                45717360,45717369,DK
+                """);
+
+        assertEquals("US", index.lookup(40000000));
+        assertEquals("US", index.lookup(45717359));
+        assertEquals("DK", index.lookup(45717365));
+        assertEquals("US", index.lookup(45717370));
+        assertEquals("US", index.lookup(49999999));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void lookup_InvalidLines_AreSkipped() throws IOException {
+        BinRangeIndex index = load("""
+                abc,def,US
+                1234,5678,US
+                520000,510000,GR
+                520000,520099,GRC
+                530000,530099,fr
+                """);
+
+        assertEquals(1, index.size());
+        assertEquals("FR", index.lookup(53000000));
+    }
+
+    @Test
+    void reloadIfModified_FileChanged_PicksUpNewRanges() throws IOException {
+        BinRangeIndex index = load("457173,457173,DK\n");
+        Path file = tempDir.resolve("bin-ranges.csv");
+
+        Files.writeString(file, "457173,457173,SE\n");
+        file.toFile().setLastModified(file.toFile().lastModified() + 10_000);
+        index.reloadIfModified();
+
+        assertEquals("SE", index.lookup(45717360));
+    }
+
+    @Test
+    void reload_MissingFile_KeepsEmptyIndex() {
+        BinRangeIndex index = new BinRangeIndex(new FileSystemResource(tempDir.resolve("missing.csv")));
+        index.init();
+
+        assertEquals(0, index.size());
+        assertNull(index.lookup(45717360));
+    }
+}
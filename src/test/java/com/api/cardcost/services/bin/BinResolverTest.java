@@ -0,0 +1,227 @@
+package com.api.cardcost.services.bin;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BinResolverTest {
+
+    private static final int BIN = 45717360;
+
+    @Mock
+    private BinRangeIndex binRangeIndex;
+
+    @Mock
+    private BinLookupProvider provider;
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private BinCountryCache binCountryCache;
+    private CircuitBreaker circuitBreaker;
+    private BinResolver binResolver;
+
+    @BeforeEach
+    void setup() {
+        when(provider.name()).thenReturn("binlist");
+        binCountryCache = new BinCountryCache(100, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofDays(1),
+                nanos::get);
+        circuitBreaker = new CircuitBreaker(2, Duration.ofSeconds(30), nanos::get);
+        GuardedBinLookupProvider binlist = new GuardedBinLookupProvider(provider, circuitBreaker,
+                new TokenBucketRateLimiter(100, Duration.ofSeconds(1), 100, nanos::get), new SimpleMeterRegistry());
+        binResolver = new BinResolver(binRangeIndex, binCountryCache,
+                new BinCountryStore(binCountryCache, "", Duration.ofDays(1), 2.0, Clock.systemUTC()),
+                new BinProviderChain(List.of(binlist), false, Duration.ofMillis(200)), null);
+    }
+
+    @Test
+    void resolve_BinInLocalIndex_SkipsBinlist() {
+        when(binRangeIndex.lookup(BIN)).thenReturn("DK");
+
+        BinLookupResult result = binResolver.resolve(BIN);
+
+        assertTrue(result.isFound());
+        assertEquals("DK", result.countryCode());
+        verify(provider, never()).lookup(anyInt());
+        verify(provider, never()).lookupAsync(anyInt());
+    }
+
+    @Test
+    void resolve_RepeatedBin_CallsBinlistOnce() {
+        when(provider.lookup(BIN)).thenReturn(BinLookupResult.found("DK", CardAttributes.UNKNOWN));
+
+        binResolver.resolve(BIN);
+        BinLookupResult result = binResolver.resolve(BIN);
+
+        assertEquals("DK", result.countryCode());
+        verify(provider, times(1)).lookup(BIN);
+        assertEquals(1, binResolver.stats().getCacheHits());
+        assertEquals(1, binResolver.stats().getCacheMisses());
+    }
+
+    @Test
+    void resolve_NotFound_IsCachedNegatively() {
+        when(provider.lookup(BIN)).thenReturn(BinLookupResult.COUNTRY_NOT_FOUND);
+
+        binResolver.resolve(BIN);
+        BinLookupResult result = binResolver.resolve(BIN);
+
+        assertEquals(BinLookupResult.Status.NOT_FOUND, result.status());
+        verify(provider, times(1)).lookup(BIN);
+    }
+
+    @Test
+    void resolve_TooManyRequests_IsNotCachedAndBacksOff() {
+        when(provider.lookup(BIN)).thenReturn(BinLookupResult.throttled("429"));
+
+        binResolver.resolve(BIN);
+        BinLookupResult throttled = binResolver.resolve(BIN);
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        binResolver.resolve(BIN);
+
+        assertEquals(BinLookupResult.Status.THROTTLED, throttled.status());
+        verify(provider, times(2)).lookup(BIN);
+    }
+
+    @Test
+    void resolve_BinlistFailing_OpensCircuitAndServesStaleEntry() {
+        when(provider.lookup(BIN)).thenReturn(BinLookupResult.found("DK", CardAttributes.UNKNOWN),
+                BinLookupResult.failed("boom"));
+        binResolver.resolve(BIN);
+        nanos.addAndGet(Duration.ofHours(2).toNanos());
+
+        BinLookupResult first = binResolver.resolve(BIN);
+        binResolver.resolve(BIN);
+        BinLookupResult rejected = binResolver.resolve(BIN);
+
+        assertEquals("DK", first.countryCode());
+        assertTrue(first.stale());
+        assertEquals("DK", rejected.countryCode());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        verify(provider, times(3)).lookup(BIN);
+        assertEquals(1, binResolver.stats().getProviders().get(0).getRejectedLookups());
+        assertEquals(3, binResolver.stats().getStaleResponses());
+    }
+
+    @Test
+    void resolve_CircuitOpenWithoutStaleEntry_ReturnsTooManyRequests() {
+        when(provider.lookup(BIN)).thenReturn(BinLookupResult.failed("boom"));
+        binResolver.resolve(BIN);
+        binResolver.resolve(BIN);
+
+        BinLookupResult result = binResolver.resolve(BIN);
+
+        assertEquals(BinLookupResult.Status.THROTTLED, result.status());
+        verify(provider, times(2)).lookup(BIN);
+    }
+
+    @Test
+    void resolveAll_MixedBins_ResolvesEachDistinctBinOnce() {
+        when(binRangeIndex.lookup(anyInt())).thenReturn(null);
+        when(binRangeIndex.lookup(11111111)).thenReturn("GR");
+        when(provider.lookupAsync(BIN))
+                .thenReturn(CompletableFuture.completedFuture(BinLookupResult.found("DK", CardAttributes.UNKNOWN)));
+        when(provider.lookupAsync(22222222))
+                .thenReturn(CompletableFuture.completedFuture(BinLookupResult.COUNTRY_NOT_FOUND));
+
+        Map<Integer, BinLookupResult> results = binResolver.resolveAll(List.of(BIN, 11111111, 22222222, BIN));
+
+        assertEquals(3, results.size());
+        assertEquals("DK", results.get(BIN).countryCode());
+        assertEquals("GR", results.get(11111111).countryCode());
+        assertEquals(BinLookupResult.Status.NOT_FOUND, results.get(22222222).status());
+        verify(provider, times(1)).lookupAsync(BIN);
+        verify(provider, never()).lookupAsync(11111111);
+        assertEquals("DK", binResolver.resolve(BIN).countryCode());
+        verify(provider, never()).lookup(anyInt());
+    }
+
+    @Test
+    void resolveAsync_ConcurrentCallsForSameBin_ShareOneRemoteCall() {
+        CompletableFuture<BinLookupResult> remote = new CompletableFuture<>();
+        when(provider.lookupAsync(BIN)).thenReturn(remote);
+
+        CompletableFuture<BinLookupResult> first = binResolver.resolveAsync(BIN);
+        CompletableFuture<BinLookupResult> second = binResolver.resolveAsync(BIN);
+        remote.complete(BinLookupResult.TOO_MANY_REQUESTS);
+
+        assertEquals(BinLookupResult.Status.THROTTLED, first.join().status());
+        assertEquals(BinLookupResult.Status.THROTTLED, second.join().status());
+        verify(provider, times(1)).lookupAsync(BIN);
+    }
+
+    @Test
+    void resolveAll_LookupThrows_ReturnsInternalServerError() {
+        when(provider.lookupAsync(BIN)).thenThrow(new IllegalStateException("boom"));
+
+        Map<Integer, BinLookupResult> results = binResolver.resolveAll(List.of(BIN));
+
+        assertEquals(BinLookupResult.Status.FAILED, results.get(BIN).status());
+        assertEquals("boom", results.get(BIN).message());
+    }
+
+    @Test
+    void resolve_BinResolvedByAnotherReplica_IsServedFromSharedCache() throws Exception {
+        try (RespServerStub server = new RespServerStub()) {
+            when(provider.lookup(BIN)).thenReturn(BinLookupResult.found("DK", CardAttributes.UNKNOWN));
+            BinResolver first = replica(server);
+            BinResolver second = replica(server);
+
+            assertEquals("DK", first.resolve(BIN).countryCode());
+            server.awaitValue("cardcost:bin:" + BIN);
+            BinLookupResult shared = second.resolve(BIN);
+
+            assertEquals("DK", shared.countryCode());
+            assertFalse(shared.stale());
+            verify(provider, times(1)).lookup(BIN);
+            assertEquals(1, second.stats().getSharedCacheHits());
+        }
+    }
+
+    @Test
+    void resolveAll_SharedCache_ReadsMissesInOneRoundTrip() throws Exception {
+        try (RespServerStub server = new RespServerStub()) {
+            when(binRangeIndex.lookup(anyInt())).thenReturn(null);
+            server.values.put("cardcost:bin:" + BIN, "DK," + System.currentTimeMillis() + ",0");
+            server.values.put("cardcost:bin:22222222", "-");
+            when(provider.lookupAsync(11111111))
+                    .thenReturn(CompletableFuture.completedFuture(BinLookupResult.found("GR", CardAttributes.UNKNOWN)));
+            BinResolver replica = replica(server);
+
+            Map<Integer, BinLookupResult> results = replica.resolveAll(List.of(BIN, 11111111, 22222222, BIN));
+
+            assertEquals("DK", results.get(BIN).countryCode());
+            assertEquals("GR", results.get(11111111).countryCode());
+            assertEquals(BinLookupResult.Status.NOT_FOUND, results.get(22222222).status());
+            assertEquals(1, server.count("MGET"));
+            assertEquals(0, server.count("GET"));
+            assertTrue(server.awaitValue("cardcost:bin:11111111").startsWith("GR,"));
+            verify(provider, never()).lookupAsync(BIN);
+        }
+    }
+
+    private BinResolver replica(RespServerStub server) {
+        BinCountryCache cache = new BinCountryCache(100, Duration.ofHours(1), Duration.ofMinutes(1),
+                Duration.ofDays(1), nanos::get);
+        GuardedBinLookupProvider binlist = new GuardedBinLookupProvider(provider, circuitBreaker, null,
+                new SimpleMeterRegistry());
+        SharedBinCache sharedCache = new SharedBinCache(server.connectionFactory(), "cardcost:bin:", Duration.ofSeconds(1),
+                Duration.ofMinutes(1), Duration.ofHours(24), Duration.ofMinutes(10));
+        return new BinResolver(binRangeIndex, cache, new BinCountryStore(cache, "", Duration.ofDays(1), 2.0,
+                Clock.systemUTC()), new BinProviderChain(List.of(binlist), false, Duration.ofMillis(200)), sharedCache);
+    }
+}
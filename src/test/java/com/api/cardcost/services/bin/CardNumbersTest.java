@@ -0,0 +1,74 @@
+package com.api.cardcost.services.bin;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardNumbersTest {
+
+    @Test
+    void parseBin_SixteenDigitCardNumber_ReturnsEightDigitBin() {
+        assertEquals(45717360, CardNumbers.parseBin("4571736000000000"));
+        assertEquals(12345678, CardNumbers.parseBin("1234567800000006"));
+    }
+
+    @Test
+    void parseBin_NineteenDigitCardNumber_ReturnsEightDigitBin() {
+        assertEquals(45717360, CardNumbers.parseBin("4571736000000000007"));
+    }
+
+    @Test
+    void parseBin_EightDigitCardNumber_IsItsOwnBin() {
+        assertEquals(45717360, CardNumbers.parseBin("45717360"));
+    }
+
+    @Test
+    void parseBin_InvalidInput_ReturnsErrorCode() {
+        assertEquals(CardNumbers.MISSING, CardNumbers.parseBin(null));
+        assertEquals(CardNumbers.INVALID_LENGTH, CardNumbers.parseBin("4571736"));
+        assertEquals(CardNumbers.INVALID_LENGTH, CardNumbers.parseBin("45717360000000000070"));
+        assertEquals(CardNumbers.NOT_DIGITS, CardNumbers.parseBin("4571-7360-0000-0000"));
+        assertEquals(CardNumbers.INVALID_CHECK_DIGIT, CardNumbers.parseBin("4571736000000001"));
+    }
+
+    @Test
+    void mask_CardNumber_KeepsBinAndLastFourDigits() {
+        assertEquals("45717360****1234", CardNumbers.mask("4571736000001234"));
+        assertEquals("45717360*******1234", CardNumbers.mask("4571736000000001234"));
+        assertEquals("4571****", CardNumbers.mask("45717360"));
+        assertEquals("4571****7", CardNumbers.mask("457173607"));
+        assertNull(CardNumbers.mask(null));
+    }
+
+    @Test
+    void errorMessage_EveryErrorCode_HasMessage() {
+        assertEquals("Card number cannot be null.", CardNumbers.errorMessage(CardNumbers.MISSING));
+        assertEquals("Card number must have between 8 and 19 digits.",
+                CardNumbers.errorMessage(CardNumbers.INVALID_LENGTH));
+        assertEquals("Card number must contain only digits.", CardNumbers.errorMessage(CardNumbers.NOT_DIGITS));
+        assertEquals("Card number failed the Luhn check.", CardNumbers.errorMessage(CardNumbers.INVALID_CHECK_DIGIT));
+        assertNull(CardNumbers.errorMessage(45717360));
+    }
+
+    @Test
+    void parseBin_DoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        String[] cardNumbers = {"4571736000000000", "4571736000000000007", "4571736000000001", "4571-7360"};
+        long checksum = 0;
+        for (int i = 0; i < 20_000; i++) {
+            checksum += CardNumbers.parseBin(cardNumbers[i & 3]);
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            checksum += CardNumbers.parseBin(cardNumbers[i & 3]);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertNotEquals(0, checksum);
+        assertTrue(allocated < 64 * 1024, "parseBin allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,73 @@
+package com.api.cardcost.services.bin;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(3, Duration.ofSeconds(30), nanos::get);
+
+    @Test
+    void onFailure_ConsecutiveFailuresReachThreshold_OpensCircuit() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        assertTrue(circuitBreaker.tryAcquire());
+
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_AfterOpenDuration_LetsSingleTrialCallThrough() {
+        open();
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+
+        assertTrue(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.state());
+
+        circuitBreaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.state());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void onFailure_TrialCallFails_ReopensCircuit() {
+        open();
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertTrue(circuitBreaker.tryAcquire());
+
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void release_UnusedTrialPermit_ReopensCircuit() {
+        open();
+        nanos.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertTrue(circuitBreaker.tryAcquire());
+
+        circuitBreaker.release();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.state());
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure();
+        }
+    }
+}
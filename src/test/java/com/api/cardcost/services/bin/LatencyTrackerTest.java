@@ -0,0 +1,32 @@
+package com.api.cardcost.services.bin;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyTrackerTest {
+
+    @Test
+    void p95Nanos_TooFewSamples_IsUnknown() {
+        LatencyTracker tracker = new LatencyTracker();
+        for (int i = 0; i < 20; i++) {
+            tracker.record(1_000);
+        }
+
+        assertEquals(-1, tracker.p95Nanos());
+    }
+
+    @Test
+    void p95Nanos_FollowsMostRecentWindow() {
+        LatencyTracker tracker = new LatencyTracker();
+        for (int i = 1; i <= 160; i++) {
+            tracker.record(i);
+        }
+        assertEquals(152, tracker.p95Nanos());
+
+        for (int i = 0; i < 256; i++) {
+            tracker.record(5_000);
+        }
+        assertEquals(5_000, tracker.p95Nanos());
+    }
+}
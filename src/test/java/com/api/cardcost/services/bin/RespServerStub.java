@@ -0,0 +1,179 @@
+package com.api.cardcost.services.bin;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process server speaking the subset of the Redis protocol used by {@link SharedBinCache}: GET, MGET, SET
+ * (expiry options are accepted and ignored), DEL and PING. Other commands, such as the {@code HELLO} of the
+ * client handshake, get an error, which makes Lettuce fall back to RESP2.
+ */
+class RespServerStub implements AutoCloseable {
+
+    final Map<String, String> values = new ConcurrentHashMap<>();
+    final Map<String, AtomicInteger> commands = new ConcurrentHashMap<>();
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LettuceConnectionFactory connectionFactory;
+
+    RespServerStub() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        executor.execute(this::accept);
+        connectionFactory = connectionFactory(serverSocket.getLocalPort());
+    }
+
+    LettuceConnectionFactory connectionFactory() {
+        return connectionFactory;
+    }
+
+    /**
+     * A started connection factory for a server on {@code port}, to be destroyed by the caller.
+     */
+    static LettuceConnectionFactory connectionFactory(int port) {
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration("127.0.0.1", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        return connectionFactory;
+    }
+
+    int count(String command) {
+        AtomicInteger count = commands.get(command);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * The value of {@code key} once an asynchronous write has stored it, or null after a few seconds.
+     */
+    String awaitValue(String key) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!values.containsKey(key) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return values.get(key);
+    }
+
+    /**
+     * The number of {@code command}s received, once it reached {@code expected} or after a few seconds.
+     */
+    int awaitCount(String command, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count(command) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return count(command);
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            List<String> command;
+            while ((command = readCommand(in)) != null) {
+                String name = command.get(0).toUpperCase();
+                commands.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+                switch (name) {
+                    case "GET" -> writeBulk(out, values.get(command.get(1)));
+                    case "MGET" -> {
+                        out.write(("*" + (command.size() - 1) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                        for (String key : command.subList(1, command.size())) {
+                            writeBulk(out, values.get(key));
+                        }
+                    }
+                    case "SET" -> {
+                        values.put(command.get(1), command.get(2));
+                        out.write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+                    }
+                    case "DEL" -> {
+                        long deleted = command.subList(1, command.size()).stream()
+                                .filter(key -> values.remove(key) != null).count();
+                        out.write((":" + deleted + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                    }
+                    case "PING" -> out.write("+PONG\r\n".getBytes(StandardCharsets.US_ASCII));
+                    default -> out.write(("-ERR unknown command '" + name + "'\r\n").getBytes(StandardCharsets.US_ASCII));
+                }
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException ignored) {
+            // client went away
+        }
+    }
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (header == null) {
+            return null;
+        }
+        int size = Integer.parseInt(header.substring(1));
+        List<String> args = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int length = Integer.parseInt(readLine(in).substring(1));
+            byte[] bytes = in.readNBytes(length + 2);
+            args.add(new String(bytes, 0, length, StandardCharsets.UTF_8));
+        }
+        return args;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\r') {
+            if (c < 0) {
+                return null;
+            }
+            line.append((char) c);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    private static void writeBulk(OutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.write(("$" + bytes.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(bytes);
+            out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        connectionFactory.destroy();
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,127 @@
+package com.api.cardcost.services.bin;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedBinCacheTest {
+
+    private static final int BIN = 45717360;
+
+    private RespServerStub server;
+    private SharedBinCache sharedCache;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = new RespServerStub();
+        sharedCache = sharedCache(server.connectionFactory());
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        sharedCache.close();
+        server.close();
+    }
+
+    @Test
+    void put_FoundAndNotFound_AreReadBack() throws InterruptedException {
+        int attributes = CardAttributes.of(CardAttributes.Scheme.VISA, CardAttributes.Type.DEBIT, false);
+        sharedCache.put(BIN, BinLookupResult.found("DK", attributes));
+        sharedCache.put(11111111, BinLookupResult.COUNTRY_NOT_FOUND);
+        server.awaitValue("cardcost:bin:" + BIN);
+        server.awaitValue("cardcost:bin:11111111");
+
+        SharedBinCache.Entry found = sharedCache.get(BIN);
+        SharedBinCache.Entry notFound = sharedCache.get(11111111);
+
+        assertEquals("DK", found.countryCode());
+        assertEquals(attributes, found.attributes());
+        assertTrue(found.resolvedAt() > 0);
+        assertFalse(notFound.found());
+        assertNull(sharedCache.get(22222222));
+        assertEquals(2, sharedCache.hitCount());
+        assertEquals(1, sharedCache.missCount());
+    }
+
+    @Test
+    void put_FailedOrStaleResults_AreNotShared() {
+        sharedCache.put(BIN, BinLookupResult.TOO_MANY_REQUESTS);
+        sharedCache.put(BIN, BinLookupResult.found("DK", CardAttributes.UNKNOWN).asStale());
+
+        assertEquals(0, server.count("SET"));
+    }
+
+    @Test
+    void getAll_LargeBatch_IsPipelinedOnOneConnection() {
+        List<Integer> bins = new ArrayList<>();
+        for (int i = 0; i < SharedBinCache.MGET_BATCH * 2 + 10; i++) {
+            bins.add(40_000_000 + i);
+            if (i % 2 == 0) {
+                server.values.put("cardcost:bin:" + (40_000_000 + i), "GR," + System.currentTimeMillis() + ",0");
+            }
+        }
+
+        Map<Integer, SharedBinCache.Entry> entries = sharedCache.getAll(bins);
+
+        assertEquals(bins.size() / 2, entries.size());
+        assertEquals("GR", entries.get(40_000_000).countryCode());
+        assertNull(entries.get(40_000_001));
+        assertEquals(3, server.count("MGET"));
+    }
+
+    @Test
+    void getAll_MalformedValues_AreMissesAndDeleted() throws InterruptedException {
+        server.values.put("cardcost:bin:" + BIN, "DK,not-a-timestamp,0");
+        server.values.put("cardcost:bin:11111111", "garbage");
+        server.values.put("cardcost:bin:22222222", "GR," + System.currentTimeMillis() + ",0");
+
+        Map<Integer, SharedBinCache.Entry> entries = sharedCache.getAll(List.of(BIN, 11111111, 22222222));
+
+        assertEquals(Set.of(22222222), entries.keySet());
+        assertEquals(1, server.awaitCount("DEL", 1));
+        assertFalse(server.values.containsKey("cardcost:bin:" + BIN));
+        assertFalse(server.values.containsKey("cardcost:bin:11111111"));
+        assertEquals(0, sharedCache.errorCount());
+        assertEquals("GR", sharedCache.get(22222222).countryCode());
+    }
+
+    @Test
+    void get_ServerUnreachable_IsSkippedUntilRetryInterval() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        LettuceConnectionFactory connectionFactory = RespServerStub.connectionFactory(port);
+        SharedBinCache unreachable = sharedCache(connectionFactory);
+
+        assertNull(unreachable.get(BIN));
+        assertTrue(unreachable.getAll(List.of(BIN, 11111111)).isEmpty());
+        unreachable.put(BIN, BinLookupResult.found("DK", CardAttributes.UNKNOWN));
+
+        assertEquals(1, unreachable.errorCount());
+        unreachable.close();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void isEnabled_WithoutConnectionFactory_IsDisabled() {
+        assertFalse(sharedCache(null).isEnabled());
+        assertTrue(sharedCache.isEnabled());
+    }
+
+    private static SharedBinCache sharedCache(LettuceConnectionFactory connectionFactory) {
+        return new SharedBinCache(connectionFactory, "cardcost:bin:", Duration.ofMillis(500), Duration.ofMinutes(1),
+                Duration.ofHours(24), Duration.ofMinutes(10));
+    }
+}
@@ -0,0 +1,44 @@
+package com.api.cardcost.services.bin;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final TokenBucketRateLimiter rateLimiter =
+            new TokenBucketRateLimiter(10, Duration.ofSeconds(1), 2, nanos::get);
+
+    @Test
+    void tryAcquire_BurstExhausted_WaitsForRefill() {
+        assertTrue(rateLimiter.tryAcquire());
+        assertTrue(rateLimiter.tryAcquire());
+        assertFalse(rateLimiter.tryAcquire());
+
+        nanos.addAndGet(Duration.ofMillis(100).toNanos());
+
+        assertTrue(rateLimiter.tryAcquire());
+        assertFalse(rateLimiter.tryAcquire());
+    }
+
+    @Test
+    void onThrottled_HalvesRateUntilSuccessesRestoreIt() {
+        rateLimiter.onThrottled();
+
+        assertEquals(5.0, rateLimiter.permitsPerSecond(), 1e-9);
+        assertFalse(rateLimiter.tryAcquire());
+        nanos.addAndGet(Duration.ofMillis(100).toNanos());
+        assertFalse(rateLimiter.tryAcquire());
+        nanos.addAndGet(Duration.ofMillis(100).toNanos());
+        assertTrue(rateLimiter.tryAcquire());
+
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.onSuccess();
+        }
+        assertEquals(10.0, rateLimiter.permitsPerSecond(), 1e-9);
+    }
+}
@@ -0,0 +1,111 @@
+package com.api.cardcost.services.bin;
+
+import com.api.cardcost.services.BinlistClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the blocking BIN resolution path with thousands of concurrent lookups against a binlist stub
+ * with fixed latency. Run with {@code ./gradlew loadTest}.
+ */
+@Tag("load")
+class VirtualThreadLoadTest {
+
+    private static final int LOOKUPS = 2_000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final Duration BINLIST_LATENCY = Duration.ofMillis(50);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void resolve_OnVirtualThreads_ExceedsPlatformPoolConcurrencyWithoutPinning() throws Exception {
+        LatencyBinlistClient platformClient = new LatencyBinlistClient();
+        long platformMillis = run(Executors.newFixedThreadPool(PLATFORM_THREADS), resolver(platformClient));
+
+        LatencyBinlistClient virtualClient = new LatencyBinlistClient();
+        List<String> pinnedEvents = new ArrayList<>();
+        long virtualMillis;
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withoutThreshold().withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> pinnedEvents.add(event.toString()));
+            recording.startAsync();
+
+            virtualMillis = run(Executors.newVirtualThreadPerTaskExecutor(), resolver(virtualClient));
+
+            recording.stop();
+        }
+
+        assertTrue(platformClient.peak.get() <= PLATFORM_THREADS);
+        assertTrue(virtualClient.peak.get() > PLATFORM_THREADS * 2,
+                "virtual threads reached only " + virtualClient.peak.get() + " concurrent lookups in " + virtualMillis
+                        + " ms, the platform pool took " + platformMillis + " ms");
+        assertEquals(List.of(), pinnedEvents);
+    }
+
+    private BinResolver resolver(BinlistClient binlistClient) {
+        BinRangeIndex index = new BinRangeIndex(new FileSystemResource(tempDir.resolve("missing.csv")));
+        index.init();
+        BinCountryCache cache = new BinCountryCache(LOOKUPS * 2, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofDays(1));
+        GuardedBinLookupProvider binlist = new GuardedBinLookupProvider(binlistClient,
+                new CircuitBreaker(5, Duration.ofSeconds(30)),
+                new TokenBucketRateLimiter(LOOKUPS, Duration.ofSeconds(1), LOOKUPS), new SimpleMeterRegistry());
+        return new BinResolver(index, cache, new BinCountryStore(cache, "", Duration.ofDays(1), 2.0, Clock.systemUTC()),
+                new BinProviderChain(List.of(binlist), false, Duration.ofMillis(200)), null);
+    }
+
+    private static long run(ExecutorService executor, BinResolver resolver) throws Exception {
+        long start = System.nanoTime();
+        try (executor) {
+            List<Future<BinLookupResult>> results = new ArrayList<>(LOOKUPS);
+            for (int i = 0; i < LOOKUPS; i++) {
+                int bin = 40_000_000 + i;
+                results.add(executor.submit(() -> resolver.resolve(bin)));
+            }
+            for (Future<BinLookupResult> result : results) {
+                assertTrue(result.get().isFound());
+            }
+        }
+        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+    }
+
+    private static class LatencyBinlistClient extends BinlistClient {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+
+        LatencyBinlistClient() {
+            super(null, BINLIST_LATENCY);
+        }
+
+        @Override
+        public BinLookupResult getCountryAlpha2(int bin) {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(BINLIST_LATENCY);
+                return BinLookupResult.found("DK", CardAttributes.UNKNOWN);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return BinLookupResult.failed(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+}